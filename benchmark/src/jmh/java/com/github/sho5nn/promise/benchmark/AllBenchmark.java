@@ -0,0 +1,84 @@
+package com.github.sho5nn.promise.benchmark;
+
+import com.github.sho5nn.promise.FulfillCallbackDone;
+import com.github.sho5nn.promise.Promise;
+import com.github.sho5nn.promise.RejectCallbackDone;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-in of {@code Promise.all(...)} from 10 up to 100k children.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllBenchmark {
+
+  @Param({"10", "100", "1000", "10000", "100000"})
+  int tasks;
+
+  ExecutorService executor;
+  Object[] taskArray;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    taskArray = new Object[tasks];
+    for (int i = 0; i < tasks; i++) {
+      final int value = i;
+      taskArray[i] = new Callable<Integer>() {
+        @Override
+        public Integer call() throws Exception {
+          return value;
+        }
+      };
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public Object[] all() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final Object[][] result = new Object[1][];
+    Promise.when(executor, Promise.all(taskArray))
+      .done(new FulfillCallbackDone<Object[]>() {
+        @Override
+        public void onFulfilled(Object[] value) {
+          result[0] = value;
+          latch.countDown();
+        }
+      }, new RejectCallbackDone<Throwable[]>() {
+        @Override
+        public void onRejected(Throwable[] value) {
+          latch.countDown();
+        }
+      });
+    latch.await();
+    return result[0];
+  }
+}
@@ -0,0 +1,128 @@
+package com.github.sho5nn.promise.benchmark;
+
+import com.github.sho5nn.promise.FulfillCallbackDone;
+import com.github.sho5nn.promise.FulfillCallbackThenSingle;
+import com.github.sho5nn.promise.MapCallback;
+import com.github.sho5nn.promise.Pipeline;
+import com.github.sho5nn.promise.Promise;
+import com.github.sho5nn.promise.PromiseTask;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code Promise.when(...).then(...).done(...)} round trip for chains of 1, 10 and 100 stages,
+ * against the same chain built once as a {@link Pipeline}.
+ * <p>
+ * The two do not run the same way. Each stage of {@link #chain()} is a task submitted to the executor,
+ * while the MAP stages of {@link #pipeline()} continue on the worker that ran the first one. So the
+ * difference also counts the executor hand-offs the pipeline skips, not only the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChainBenchmark {
+
+  @Param({"1", "10", "100"})
+  int depth;
+
+  ExecutorService executor;
+  Pipeline<Integer, Integer> pipeline;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    pipeline = Pipeline.begin();
+    for (int i = 0; i < depth; i++) {
+      pipeline = pipeline.then(new MapCallback<Integer, Integer>() {
+        @Override
+        public Integer map(Integer value) throws Exception {
+          return value + 1;
+        }
+      });
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public Integer chain() throws Exception {
+    Promise<Integer, Throwable> promise = Promise.when(executor, Promise.single(Tasks.increment(0)));
+    for (int i = 1; i < depth; i++) {
+      promise = promise.then(new FulfillCallbackThenSingle<Integer, Integer>() {
+        @Override
+        public PromiseTask.Single<Integer> onFulfilled(Integer value) {
+          return Promise.single(Tasks.increment(value));
+        }
+      });
+    }
+
+    final CountDownLatch latch = new CountDownLatch(1);
+    final Integer[] result = new Integer[1];
+    promise.done(new FulfillCallbackDone<Integer>() {
+      @Override
+      public void onFulfilled(Integer value) {
+        result[0] = value;
+        latch.countDown();
+      }
+    });
+    latch.await();
+    return result[0];
+  }
+
+  /**
+   * Submits once, then runs every stage on that worker. See the class comment.
+   */
+  @Benchmark
+  public Integer pipeline() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final Integer[] result = new Integer[1];
+    pipeline.run(executor, 0).done(new FulfillCallbackDone<Integer>() {
+      @Override
+      public void onFulfilled(Integer value) {
+        result[0] = value;
+        latch.countDown();
+      }
+    });
+    latch.await();
+    return result[0];
+  }
+
+  static class Tasks {
+
+    private Tasks() {
+    }
+
+    static Callable<Integer> increment(final int i) {
+      return new Callable<Integer>() {
+        @Override
+        public Integer call() throws Exception {
+          return i + 1;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides on which thread the callbacks of a Promise are called. See {@link Promise#at(CallbackDispatcher)}.
+ */
+public interface CallbackDispatcher {
+
+  void dispatch(@NonNull Runnable callback);
+
+  /**
+   * Calls back on the thread that settled the promise. This is the default.
+   */
+  class Direct implements CallbackDispatcher {
+
+    public static final Direct INSTANCE = new Direct();
+
+    private Direct() {
+    }
+
+    @Override
+    public void dispatch(@NonNull Runnable callback) {
+      callback.run();
+    }
+  }
+
+  /**
+   * Calls back on an {@link Executor}, e.g. a dedicated single thread.
+   */
+  class ExecutorAdapter implements CallbackDispatcher {
+
+    @NonNull
+    private final Executor executor;
+
+    public ExecutorAdapter(@NonNull Executor executor) {
+      this.executor = executor;
+    }
+
+    @Override
+    public void dispatch(@NonNull Runnable callback) {
+      executor.execute(callback);
+    }
+  }
+
+  /**
+   * Calls back on an {@link Executor} one at a time, in the order of dispatch.
+   */
+  class Serial implements CallbackDispatcher, Runnable {
+
+    @NonNull
+    private final Executor executor;
+    @NonNull
+    private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    @NonNull
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public Serial(@NonNull Executor executor) {
+      this.executor = executor;
+    }
+
+    @Override
+    public void dispatch(@NonNull Runnable callback) {
+      queue.offer(callback);
+      if (pending.getAndIncrement() == 0) {
+        executor.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      do {
+        Runnable callback = queue.poll();
+        try {
+          callback.run();
+        } catch (RuntimeException | Error e) {
+          if (pending.decrementAndGet() != 0) executor.execute(this);
+          throw e;
+        }
+      } while (pending.decrementAndGet() != 0);
+    }
+  }
+
+  /**
+   * Calls back on the {@link Looper} thread of an android {@link Handler}.
+   */
+  class HandlerAdapter implements CallbackDispatcher {
+
+    @NonNull
+    private final Handler handler;
+
+    public HandlerAdapter(@NonNull Handler handler) {
+      this.handler = handler;
+    }
+
+    @NonNull
+    public static HandlerAdapter main() {
+      return new HandlerAdapter(new Handler(Looper.getMainLooper()));
+    }
+
+    @Override
+    public void dispatch(@NonNull Runnable callback) {
+      handler.post(callback);
+    }
+  }
+}
@@ -37,5 +37,7 @@ interface Deferred<F, R> {
 
   interface Trigger<F, R> extends Deferred<F, R> {
     void execute();
+
+    boolean hasMode(@NonNull Promise.Mode mode);
   }
 }
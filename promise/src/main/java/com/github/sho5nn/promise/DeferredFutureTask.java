@@ -24,12 +24,11 @@
 
 package com.github.sho5nn.promise;
 
-import android.os.Handler;
-import android.os.Looper;
 import android.support.annotation.NonNull;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.FutureTask;
 
 class DeferredFutureTask<F> extends FutureTask<F> {
@@ -47,8 +46,40 @@ class DeferredFutureTask<F> extends FutureTask<F> {
     this.promise = promise;
   }
 
+  @NonNull
+  ExecutorService executor() {
+    return promise.executor();
+  }
+
+  @Override
+  public void run() {
+    // a continuation submitted while a stage settles runs in that stage's trampoline instead
+    if (promise.hasMode(Promise.Mode.INLINE) && !Trampoline.isSettling()) {
+      Trampoline.run(this);
+    } else {
+      super.run();
+    }
+  }
+
+  /**
+   * Runs the task itself, called by the {@link Trampoline} this task is queued in.
+   */
+  void runStage() {
+    super.run();
+  }
+
   @Override
   protected void done() {
+    // only the continuations started from here on may be queued on this worker's trampoline
+    boolean settling = Trampoline.setSettling(true);
+    try {
+      settle();
+    } finally {
+      Trampoline.setSettling(settling);
+    }
+  }
+
+  private void settle() {
     F result;
     try {
       result = get();
@@ -58,15 +89,11 @@ class DeferredFutureTask<F> extends FutureTask<F> {
     }
 
     try {
-
       promise.resolve(result);
-    } catch (final RuntimeException e) {
-      new Handler(Looper.getMainLooper()).post(new Runnable() {
-        @Override
-        public void run() {
-          throw new RuntimeException(e);
-        }
-      });
+    } catch (RuntimeException e) {
+      // a failing callback must not go unnoticed inside the worker
+      Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, new RuntimeException(e));
     }
   }
 }
@@ -28,23 +28,23 @@ import android.support.annotation.NonNull;
 
 import java.util.concurrent.ExecutorService;
 
-class DeferredLater<F, R> implements Deferred.Later<F, R> {
-
-  @NonNull
-  private Promise<F, R> promise;
+/**
+ * The promise of a then() stage is its own {@link Deferred.Later}, so a stage costs one object.
+ */
+class DeferredLater<F, R> extends PromiseImpl<F, R> implements Deferred.Later<F, R> {
 
-  DeferredLater(@NonNull ExecutorService executor, @NonNull Trigger trigger) {
-    this.promise = new PromiseImpl<>(executor, trigger);
+  DeferredLater(@NonNull ExecutorService executor, @NonNull Trigger<?, ?> trigger) {
+    super(executor, trigger);
   }
 
   @NonNull
   @Override
   public Promise<F, R> promise() {
-    return promise;
+    return this;
   }
 
   @Override
   public void execute(@NonNull PromiseTask task) {
-    TaskExecutor.create(promise, task).execute();
+    TaskExecutor.execute(this, task);
   }
 }
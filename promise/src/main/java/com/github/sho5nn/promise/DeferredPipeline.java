@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * One run of a {@link Pipeline}. It walks the stages itself, and hands itself to the executor or to a
+ * dispatcher whenever a stage has to run elsewhere, so a run allocates nothing per stage.
+ */
+class DeferredPipeline<OUT> implements Deferred.Trigger<OUT, Throwable>, Runnable {
+
+  @NonNull
+  private final Promise<OUT, Throwable> promise;
+  @NonNull
+  private final Pipeline.Stage[] stages;
+
+  // Handed over with the run through the executor / dispatcher, which orders the writes before the reads.
+  private Object value;
+  private int next;
+  private boolean moved;
+
+  DeferredPipeline(@NonNull ExecutorService executor, @NonNull Pipeline.Stage[] stages, @Nullable Object input) {
+    this.promise = new PromiseImpl<>(executor, this);
+    this.stages = stages;
+    this.value = input;
+  }
+
+  @NonNull
+  @Override
+  public Promise<OUT, Throwable> promise() {
+    return promise;
+  }
+
+  @Override
+  public void execute() {
+    if (!promise.execute()) return;
+    advance();
+  }
+
+  @Override
+  public boolean hasMode(@NonNull Promise.Mode mode) {
+    return false;
+  }
+
+  /**
+   * Continues on the executor or dispatcher the current stage was moved to.
+   */
+  @Override
+  public void run() {
+    advance();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void advance() {
+    while (next < stages.length) {
+      Pipeline.Stage stage = stages[next];
+      if (!moved && (stage.dispatcher != null || stage.submit)) {
+        moved = true;
+        if (stage.dispatcher != null) {
+          stage.dispatcher.dispatch(this);
+        } else {
+          ForkJoinSupport.execute(promise.executor(), this);
+        }
+        return;
+      }
+      moved = false;
+
+      try {
+        switch (stage.kind) {
+          case Pipeline.MAP:
+            value = ((MapCallback<Object, Object>) stage.callback).map(value);
+            break;
+          case Pipeline.APPLY:
+            value = ((FulfillCallbackThenApply<Object, Object>) stage.callback).onFulfilled(value);
+            break;
+          default:
+            ((FulfillCallbackThenAccept<Object>) stage.callback).onFulfilled(value);
+            break;
+        }
+      } catch (Throwable e) {
+        // an Error rejects too, as it does for a single task, so the run never stays pending
+        value = null;
+        promise.reject(stage.kind == Pipeline.MAP ? new ExecutionException(e) : e);
+        return;
+      }
+      next++;
+    }
+
+    Object result = value;
+    value = null;
+    promise.resolve((OUT) result);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.ExecutorService;
+
+class DeferredResolver<F, R> extends Resolver<F, R> implements Deferred.Trigger<F, R> {
+
+  @NonNull
+  private Promise<F, R> promise;
+
+  DeferredResolver(@NonNull ExecutorService executor) {
+    this.promise = new PromiseImpl<>(executor, this);
+  }
+
+  @NonNull
+  @Override
+  public Promise<F, R> promise() {
+    return promise;
+  }
+
+  @Override
+  public boolean resolve(F value) {
+    return promise.tryResolve(value);
+  }
+
+  @Override
+  public boolean reject(R reason) {
+    return promise.tryReject(reason);
+  }
+
+  @Override
+  public void execute() {
+    // nothing to run, the promise is settled from outside
+    promise.execute();
+  }
+
+  @Override
+  public boolean hasMode(@NonNull Promise.Mode mode) {
+    return false;
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The trigger of {@link Promise#resolved} / {@link Promise#rejected}. The promise is settled on creation,
+ * so its listener stack is closed and every listener runs right away; there is nothing to execute.
+ */
+class DeferredSettled<F, R> implements Deferred.Trigger<F, R> {
+
+  // Runs the then() stages of a settled promise created without an executor on the thread that adds them.
+  static final ExecutorService DIRECT = new DirectExecutorService();
+
+  // Immutable once settled, so these are shared by every call with null.
+  @SuppressWarnings("rawtypes")
+  private static final Promise NULL_FULFILLED = new DeferredSettled<>(DIRECT, true, null).promise();
+  @SuppressWarnings("rawtypes")
+  private static final Promise NULL_REJECTED = new DeferredSettled<>(DIRECT, false, null).promise();
+
+  @NonNull
+  private final Promise<F, R> promise;
+
+  @SuppressWarnings("unchecked")
+  private DeferredSettled(@NonNull ExecutorService executor, boolean fulfilled, @Nullable Object value) {
+    promise = new PromiseImpl<>(executor, this);
+    promise.execute();
+    if (fulfilled) {
+      promise.tryResolve((F) value);
+    } else {
+      promise.tryReject((R) value);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @NonNull
+  static <F, R> Promise<F, R> resolved(@NonNull ExecutorService executor, @Nullable F value) {
+    if (value == null && executor == DIRECT) return (Promise<F, R>) NULL_FULFILLED;
+    return new DeferredSettled<F, R>(executor, true, value).promise();
+  }
+
+  @SuppressWarnings("unchecked")
+  @NonNull
+  static <F, R> Promise<F, R> rejected(@NonNull ExecutorService executor, @Nullable R reason) {
+    if (reason == null && executor == DIRECT) return (Promise<F, R>) NULL_REJECTED;
+    return new DeferredSettled<F, R>(executor, false, reason).promise();
+  }
+
+  @NonNull
+  @Override
+  public Promise<F, R> promise() {
+    return promise;
+  }
+
+  @Override
+  public void execute() {
+    // settled already
+  }
+
+  @Override
+  public boolean hasMode(@NonNull Promise.Mode mode) {
+    return false;
+  }
+
+  private static class DirectExecutorService extends AbstractExecutorService {
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+      command.run();
+    }
+
+    @Override
+    public void shutdown() {
+      // shared, never shut down
+    }
+
+    @NonNull
+    @Override
+    public List<Runnable> shutdownNow() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return false;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return false;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) {
+      return false;
+    }
+  }
+}
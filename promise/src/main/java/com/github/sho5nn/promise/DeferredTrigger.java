@@ -26,18 +26,35 @@ package com.github.sho5nn.promise;
 
 import android.support.annotation.NonNull;
 
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.concurrent.ExecutorService;
 
 class DeferredTrigger<F, R> implements Deferred.Trigger<F, R> {
 
+  private static final EnumSet<Promise.Mode> NO_MODES = EnumSet.noneOf(Promise.Mode.class);
+
   @NonNull
   private Promise<F, R> promise;
   @NonNull
   private PromiseTask task;
+  @NonNull
+  private EnumSet<Promise.Mode> modes;
 
   DeferredTrigger(@NonNull ExecutorService executor, @NonNull PromiseTask task) {
+    this(executor, task, NO_MODES);
+  }
+
+  DeferredTrigger(@NonNull ExecutorService executor, @NonNull PromiseTask task, @NonNull Promise.Mode... modes) {
+    this(executor, task, modes.length == 0 ? NO_MODES : EnumSet.copyOf(Arrays.asList(modes)));
+  }
+
+  private DeferredTrigger(@NonNull ExecutorService executor, @NonNull PromiseTask task,
+                          @NonNull EnumSet<Promise.Mode> modes) {
     this.promise = new PromiseImpl<>(executor, this);
     this.task = task;
+    this.modes = modes;
+    if (modes.contains(Promise.Mode.EAGER)) execute();
   }
 
   @NonNull
@@ -46,8 +63,18 @@ class DeferredTrigger<F, R> implements Deferred.Trigger<F, R> {
     return promise;
   }
 
+  @Override
+  public boolean hasMode(@NonNull Promise.Mode mode) {
+    return modes.contains(mode);
+  }
+
+  /**
+   * Called by every done() / await(). Only the first call starts the task; the later ones return here,
+   * without going through a {@link TaskExecutor}, and their listeners get the memoized result.
+   */
   @Override
   public void execute() {
-    TaskExecutor.create(promise, task).execute();
+    if (!promise.isPending()) return;
+    TaskExecutor.execute(promise, task);
   }
 }
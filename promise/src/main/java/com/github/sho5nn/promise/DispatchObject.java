@@ -24,40 +24,76 @@
 
 package com.github.sho5nn.promise;
 
-import android.os.Handler;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
-class DispatchObject<V> {
-
-  interface Dispatcher<V> {
-    void dispatch(V value);
-  }
+/**
+ * A fulfill / reject listener registered on a {@link PromiseImpl}.
+ * Nodes are linked into the promise's listener stack through {@link #next},
+ * and a node hands itself to its {@link CallbackDispatcher}, so dispatching allocates nothing.
+ * A node is dispatched at most once.
+ */
+abstract class DispatchObject<F, R> implements Runnable {
 
-  @NonNull
-  private Dispatcher<V> dispatcher;
   @Nullable
-  private Handler handler;
+  private volatile CallbackDispatcher dispatcher;
+  @Nullable
+  DispatchObject<F, R> next;
+
+  private boolean resolved;
+  private Object value;
 
-  DispatchObject(@NonNull Dispatcher<V> dispatcher) {
+  DispatchObject<F, R> setDispatcher(@NonNull CallbackDispatcher dispatcher) {
     this.dispatcher = dispatcher;
+    return this;
   }
 
-  DispatchObject setHandler(@NonNull Handler handler) {
-    this.handler = handler;
-    return this;
+  void onResolved(F value) {
+  }
+
+  void onRejected(R value) {
+  }
+
+  void dispatchResolved(F value) {
+    dispatch(true, value);
+  }
+
+  void dispatchRejected(R value) {
+    dispatch(false, value);
+  }
+
+  void post(@NonNull Runnable callback) {
+    CallbackDispatcher dispatcher = this.dispatcher;
+    if (dispatcher != null) {
+      dispatcher.dispatch(callback);
+    } else {
+      callback.run();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void dispatch(boolean resolved, Object value) {
+    CallbackDispatcher dispatcher = this.dispatcher;
+    if (dispatcher != null) {
+      this.resolved = resolved;
+      this.value = value;
+      dispatcher.dispatch(this);
+    } else if (resolved) {
+      onResolved((F) value);
+    } else {
+      onRejected((R) value);
+    }
   }
 
-  void dispatch(final V value) {
-    if (handler != null) {
-      handler.post(new Runnable() {
-        @Override
-        public void run() {
-          dispatcher.dispatch(value);
-        }
-      });
+  @SuppressWarnings("unchecked")
+  @Override
+  public void run() {
+    Object value = this.value;
+    this.value = null;
+    if (resolved) {
+      onResolved((F) value);
     } else {
-      dispatcher.dispatch(value);
+      onRejected((R) value);
     }
   }
 }
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Counts down the children of a combinator. Every countdown is a volatile read-modify-write,
+ * so the thread that sees zero also sees everything the other children wrote before counting down.
+ * <p>
+ * Wide fan-outs are counted with a two level tree: children count down one of several leaf counters
+ * (striped by index, so children that finish together hit different leaves), and only the last child
+ * of each leaf counts down the root.
+ */
+abstract class FanInCounter {
+
+  private static final int LEAF_FAN_IN = 64;
+  // one leaf per 64 bytes, so that leaves do not share a cache line
+  private static final int LEAF_STRIDE = 16;
+
+  static FanInCounter create(int count) {
+    if (count <= LEAF_FAN_IN * 2) {
+      return new Flat(count);
+    }
+    return new Tree(count);
+  }
+
+  /**
+   * @return true if this was the last countdown.
+   */
+  abstract boolean countDown(int index);
+
+  private static class Flat extends FanInCounter {
+
+    private final AtomicInteger remaining;
+
+    Flat(int count) {
+      remaining = new AtomicInteger(count);
+    }
+
+    @Override
+    boolean countDown(int index) {
+      return remaining.decrementAndGet() == 0;
+    }
+  }
+
+  private static class Tree extends FanInCounter {
+
+    private final int leafCount;
+    private final AtomicIntegerArray leaves;
+    private final AtomicInteger root;
+
+    Tree(int count) {
+      leafCount = (count + LEAF_FAN_IN - 1) / LEAF_FAN_IN;
+      leaves = new AtomicIntegerArray(leafCount * LEAF_STRIDE);
+      for (int leaf = 0; leaf < leafCount; leaf++) {
+        leaves.set(leaf * LEAF_STRIDE, count / leafCount + (leaf < count % leafCount ? 1 : 0));
+      }
+      root = new AtomicInteger(leafCount);
+    }
+
+    @Override
+    boolean countDown(int index) {
+      if (leaves.decrementAndGet((index % leafCount) * LEAF_STRIDE) != 0) return false;
+      return root.decrementAndGet() == 0;
+    }
+  }
+}
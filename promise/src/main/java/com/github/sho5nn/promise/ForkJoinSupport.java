@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Fork/join aware execution for promises that run on a {@link ForkJoinPool}.
+ * ForkJoinPool is API 21 and this library supports 19, so the pool classes are only touched
+ * by {@link Api21}, which is not loaded unless they exist.
+ */
+final class ForkJoinSupport {
+
+  private static final boolean AVAILABLE = isAvailable();
+
+  private ForkJoinSupport() {
+  }
+
+  private static boolean isAvailable() {
+    try {
+      Class.forName("java.util.concurrent.ForkJoinPool");
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  /**
+   * On a worker of {@code executor}, forks the task onto the worker's own deque, where the worker itself
+   * picks it up first and idle workers steal it. Anywhere else this is {@code executor.execute(task)}.
+   */
+  static void execute(@NonNull Executor executor, @NonNull Runnable task) {
+    if (AVAILABLE && Api21.fork(executor, task)) return;
+    executor.execute(task);
+  }
+
+  /**
+   * Waits for the latch. On a ForkJoinPool worker, runs the pool's pending tasks while waiting,
+   * and lets the pool compensate with another worker when there is none to run.
+   */
+  static void await(@NonNull SettledLatch<?, ?> latch) throws InterruptedException {
+    if (AVAILABLE && Api21.await(latch)) return;
+    latch.await();
+  }
+
+  private static final class Api21 {
+
+    static boolean fork(@NonNull Executor executor, @NonNull Runnable task) {
+      Thread thread = Thread.currentThread();
+      if (!(thread instanceof ForkJoinWorkerThread) || ((ForkJoinWorkerThread) thread).getPool() != executor) {
+        return false;
+      }
+      ForkJoinTask.adapt(task).fork();
+      return true;
+    }
+
+    static boolean await(@NonNull final SettledLatch<?, ?> latch) throws InterruptedException {
+      if (!(Thread.currentThread() instanceof ForkJoinWorkerThread)) return false;
+
+      while (!latch.isReleased()) {
+        // the tasks forked by this worker come first, e.g. the children of the awaited Promise.all
+        ForkJoinTask<?> task = Helper.poll();
+        if (task != null) {
+          task.quietlyInvoke();
+          continue;
+        }
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+          @Override
+          public boolean block() throws InterruptedException {
+            latch.await();
+            return true;
+          }
+
+          @Override
+          public boolean isReleasable() {
+            return latch.isReleased();
+          }
+        });
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Only here to reach the protected {@link ForkJoinTask#pollTask()}. Never instantiated.
+   */
+  @SuppressWarnings("serial")
+  private abstract static class Helper extends ForkJoinTask<Void> {
+
+    static ForkJoinTask<?> poll() {
+      return pollTask();
+    }
+  }
+}
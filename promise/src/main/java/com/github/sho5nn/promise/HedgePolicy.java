@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when {@link Promise#hedged(java.util.concurrent.Callable, HedgePolicy)} starts its backup copy.
+ * The delay is a percentile of the latencies recently observed by the hedged tasks that share this policy.
+ * Until enough latencies are observed, the initial delay is used.
+ */
+public final class HedgePolicy {
+
+  private static final int SAMPLES = 128;
+  private static final int MIN_SAMPLES = 16;
+
+  private final double percentile;
+  private final long initialDelayNanos;
+
+  // Guarded by this. A ring of the latest latencies, in nanoseconds.
+  private final long[] samples = new long[SAMPLES];
+  private int count;
+  private int next;
+
+  /**
+   * @param percentile   0 &lt; percentile &lt; 1, e.g. 0.95 starts a backup for the slowest 5%
+   * @param initialDelay the delay until enough latencies are observed
+   */
+  @SuppressWarnings("ConstantConditions")
+  public HedgePolicy(double percentile, long initialDelay, @NonNull TimeUnit unit) {
+    if (!(percentile > 0 && percentile < 1)) {
+      throw new IllegalArgumentException("percentile must be between 0 and 1. actual:" + percentile);
+    }
+    if (initialDelay < 0 || unit == null) {
+      throw new IllegalArgumentException("initialDelay must not be negative. actual:" + initialDelay);
+    }
+    this.percentile = percentile;
+    this.initialDelayNanos = unit.toNanos(initialDelay);
+  }
+
+  synchronized void record(long latencyNanos) {
+    samples[next] = latencyNanos;
+    next = (next + 1) % SAMPLES;
+    if (count < SAMPLES) count++;
+  }
+
+  long delayNanos() {
+    long[] sorted;
+    synchronized (this) {
+      if (count < MIN_SAMPLES) return initialDelayNanos;
+      sorted = Arrays.copyOf(samples, count);
+    }
+    Arrays.sort(sorted);
+    return sorted[(int) Math.min(sorted.length - 1, (long) (percentile * sorted.length))];
+  }
+
+  /**
+   * Fires the backup copies. One daemon thread is enough, it only submits them to the executor of the promise.
+   */
+  @NonNull
+  static ScheduledExecutorService scheduler() {
+    return Scheduler.INSTANCE;
+  }
+
+  private static class Scheduler {
+
+    static final ScheduledExecutorService INSTANCE = create();
+
+    @NonNull
+    private static ScheduledExecutorService create() {
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+          Thread thread = new Thread(r, "promise-hedge");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      // Most timers are cancelled because the primary fulfilled first. Without this they stay queued,
+      // holding their hedged task, until the delay passes.
+      try {
+        executor.setRemoveOnCancelPolicy(true);
+      } catch (NoSuchMethodError e) {
+        // API 21, the cancelled timers are dropped when they come due below it
+      }
+      return executor;
+    }
+  }
+}
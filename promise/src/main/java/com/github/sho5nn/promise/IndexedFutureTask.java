@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * A child task of a combinator. Instead of settling a Promise of its own,
+ * it reports its result to the combinator together with its index.
+ */
+class IndexedFutureTask extends FutureTask<Object> {
+
+  interface Listener {
+    void onFulfilled(int index, Object value);
+
+    void onRejected(int index, Throwable reason);
+  }
+
+  @NonNull
+  private final Listener listener;
+  final int index;
+  @NonNull
+  private final PromiseTask.Single<?> single;
+  // 0 for the first run, counts up with each retry()
+  final int attempt;
+
+  IndexedFutureTask(@NonNull Listener listener, int index, @NonNull PromiseTask.Single<?> single) {
+    this(listener, index, single, 0);
+  }
+
+  @SuppressWarnings("unchecked")
+  private IndexedFutureTask(@NonNull Listener listener, int index, @NonNull PromiseTask.Single<?> single, int attempt) {
+    super(single.task instanceof Callable ? (Callable<Object>) single.task : new RunnableCallable((Runnable) single.task));
+    this.listener = listener;
+    this.index = index;
+    this.single = single;
+    this.attempt = attempt;
+  }
+
+  /**
+   * A fresh task that runs the same task again for the same index.
+   */
+  @NonNull
+  IndexedFutureTask retry() {
+    return new IndexedFutureTask(listener, index, single, attempt + 1);
+  }
+
+  /**
+   * Cancels every task but {@code except}. Tasks still waiting in the queue of a
+   * {@link ThreadPoolExecutor} are removed from it, so they never occupy a worker.
+   */
+  static void cancelOthers(@NonNull ExecutorService executor, @NonNull IndexedFutureTask[] tasks, int except,
+                           boolean mayInterruptIfRunning) {
+    boolean cancelled = false;
+    for (IndexedFutureTask task : tasks) {
+      if (task.index == except) continue;
+      cancelled |= task.cancel(mayInterruptIfRunning);
+    }
+    if (cancelled && executor instanceof ThreadPoolExecutor) {
+      ((ThreadPoolExecutor) executor).purge();
+    }
+  }
+
+  @Override
+  protected void done() {
+    if (isCancelled()) return;
+
+    Object result;
+    try {
+      result = get();
+    } catch (InterruptedException | ExecutionException e) {
+      listener.onRejected(index, e);
+      return;
+    }
+    listener.onFulfilled(index, result);
+  }
+
+  private static class RunnableCallable implements Callable<Object> {
+
+    @NonNull
+    private final Runnable runnable;
+
+    RunnableCallable(@NonNull Runnable runnable) {
+      this.runnable = runnable;
+    }
+
+    @Override
+    public Object call() throws Exception {
+      runnable.run();
+      return null;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A chain of stages that is built once and run for many inputs.
+ * <p>
+ * Each {@link #run(ExecutorService, Object)} allocates one driver and one Promise, instead of a promise,
+ * a listener and a task per stage as with {@code Promise.when(...).then(...)}. A pipeline is immutable,
+ * so it can be kept in a static field and run from any thread.
+ *
+ * <pre>{@code
+ * static final Pipeline<String, Bitmap> THUMBNAIL = Pipeline.<String>begin()
+ *   .then(download)    // MapCallback, runs on the executor
+ *   .then(decode)      // MapCallback, continues on the same worker
+ *   .then(show).atMain();
+ * }</pre>
+ */
+public final class Pipeline<IN, OUT> {
+
+  static final int MAP = 0;
+  static final int APPLY = 1;
+  static final int ACCEPT = 2;
+
+  static final class Stage {
+
+    final int kind;
+    @NonNull
+    final Object callback;
+    @Nullable
+    final CallbackDispatcher dispatcher;
+    // Precomputed when the pipeline is built: a MAP stage has to be submitted to the executor unless
+    // the previous stage is already running on one of its workers.
+    final boolean submit;
+
+    Stage(int kind, @NonNull Object callback, @Nullable CallbackDispatcher dispatcher, boolean submit) {
+      this.kind = kind;
+      this.callback = callback;
+      this.dispatcher = dispatcher;
+      this.submit = submit;
+    }
+  }
+
+  private static final Pipeline<?, ?> EMPTY = new Pipeline<>(new Stage[0], false);
+
+  @NonNull
+  final Stage[] stages;
+  // whether the last stage leaves the run on a worker of the executor
+  private final boolean onWorker;
+
+  private Pipeline(@NonNull Stage[] stages, boolean onWorker) {
+    this.stages = stages;
+    this.onWorker = onWorker;
+  }
+
+  /**
+   * A pipeline without stages, which fulfills with its input.
+   */
+  @SuppressWarnings("unchecked")
+  @NonNull
+  public static <T> Pipeline<T, T> begin() {
+    return (Pipeline<T, T>) EMPTY;
+  }
+
+  /**
+   * Adds a stage that maps the value on the executor, like then() with a {@link PromiseTask.Single}.
+   * An exception rejects the run, wrapped in an ExecutionException as for a single task.
+   */
+  @NonNull
+  public <U> Pipeline<IN, U> then(@NonNull MapCallback<? super OUT, ? extends U> task) {
+    return append(new Stage(MAP, task, null, !onWorker), true);
+  }
+
+  /**
+   * Adds a stage that maps the value on the thread of the previous stage, like then() with a
+   * {@link FulfillCallbackThenApply}. An exception rejects the run.
+   */
+  @NonNull
+  public <U> Pipeline<IN, U> then(@NonNull FulfillCallbackThenApply<? super OUT, ? extends U> callback) {
+    return append(new Stage(APPLY, callback, null, false), onWorker);
+  }
+
+  /**
+   * Adds a stage that looks at the value on the thread of the previous stage, like then() with a
+   * {@link FulfillCallbackThenAccept}. An exception rejects the run.
+   */
+  @NonNull
+  public Pipeline<IN, OUT> then(@NonNull FulfillCallbackThenAccept<? super OUT> callback) {
+    return append(new Stage(ACCEPT, callback, null, false), onWorker);
+  }
+
+  @NonNull
+  public Pipeline<IN, OUT> atMain() {
+    return at(CallbackDispatcher.HandlerAdapter.main());
+  }
+
+  /**
+   * Runs the last stage added on the dispatcher, like {@link Promise#at(CallbackDispatcher)}.
+   */
+  @SuppressWarnings("ConstantConditions")
+  @NonNull
+  public Pipeline<IN, OUT> at(@NonNull CallbackDispatcher dispatcher) {
+    if (stages.length == 0) throw new IllegalStateException("Pipeline has no stage.");
+    if (dispatcher == null) throw new IllegalArgumentException("dispatcher is null");
+
+    Stage last = stages[stages.length - 1];
+    Stage[] copy = stages.clone();
+    copy[copy.length - 1] = new Stage(last.kind, last.callback, dispatcher, false);
+    return new Pipeline<>(copy, false);
+  }
+
+  /**
+   * A Promise of running the stages for the input. Like {@code Promise.when()}, it starts on the first
+   * done() or await(), on the returned promise or on a then() stage after it. MAP stages run on the executor.
+   */
+  @NonNull
+  public Promise<OUT, Throwable> run(@NonNull ExecutorService executor, @Nullable IN input) {
+    return new DeferredPipeline<OUT>(executor, stages, input).promise();
+  }
+
+  @NonNull
+  private <U> Pipeline<IN, U> append(@NonNull Stage stage, boolean onWorker) {
+    Stage[] copy = Arrays.copyOf(stages, stages.length + 1);
+    copy[stages.length] = stage;
+    return new Pipeline<>(copy, onWorker);
+  }
+}
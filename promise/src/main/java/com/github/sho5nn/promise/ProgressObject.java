@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+/**
+ * A progress listener in the listener stack of a {@link PromiseImpl}.
+ * It ignores the settlement itself. Like any listener, it has its own {@link CallbackDispatcher}, set by
+ * an at() called right after progress().
+ */
+class ProgressObject<F, R> extends DispatchObject<F, R> {
+
+  @NonNull
+  private final ProgressCallbackAll callback;
+
+  ProgressObject(@NonNull ProgressCallbackAll callback) {
+    this.callback = callback;
+  }
+
+  void dispatchProgress(final int index, final Object value) {
+    post(new Runnable() {
+      @Override
+      public void run() {
+        callback.onFulfilled(index, value);
+      }
+    });
+  }
+
+  void dispatchProgressRejected(final int index, final Throwable reason) {
+    post(new Runnable() {
+      @Override
+      public void run() {
+        callback.onRejected(index, reason);
+      }
+    });
+  }
+}
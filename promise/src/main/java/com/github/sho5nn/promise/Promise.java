@@ -26,7 +26,10 @@ package com.github.sho5nn.promise;
 
 import android.os.Handler;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 
@@ -38,16 +41,124 @@ public abstract class Promise<F, R> {
     return new DeferredTrigger<F, Throwable>(executor, single).promise();
   }
 
+  @NonNull
+  public static <F> Promise<F, Throwable> when(@NonNull ExecutorService executor, @NonNull PromiseTask.Single<F> single,
+                                               @NonNull Mode... modes) {
+    return new DeferredTrigger<F, Throwable>(executor, single, modes).promise();
+  }
+
   @NonNull
   public static Promise<Object[], Throwable[]> when(@NonNull ExecutorService executor, @NonNull PromiseTask.All all) {
     return new DeferredTrigger<Object[], Throwable[]>(executor, all).promise();
   }
 
+  @NonNull
+  public static Promise<Object[], Throwable[]> when(@NonNull ExecutorService executor, @NonNull PromiseTask.All all,
+                                                    @NonNull Mode... modes) {
+    return new DeferredTrigger<Object[], Throwable[]>(executor, all, modes).promise();
+  }
+
+  @NonNull
+  public static <A> Promise<A, Throwable[]> when(@NonNull ExecutorService executor,
+                                                 @NonNull PromiseTask.AllPrimitive<A> all) {
+    return new DeferredTrigger<A, Throwable[]>(executor, all).promise();
+  }
+
+  @NonNull
+  public static <A> Promise<A, Throwable[]> when(@NonNull ExecutorService executor,
+                                                 @NonNull PromiseTask.AllPrimitive<A> all, @NonNull Mode... modes) {
+    return new DeferredTrigger<A, Throwable[]>(executor, all, modes).promise();
+  }
+
+  @NonNull
+  public static <T extends Tuple> Promise<T, Throwable> when(@NonNull ExecutorService executor,
+                                                             @NonNull PromiseTask.Zip<T> zip) {
+    return new DeferredTrigger<T, Throwable>(executor, zip).promise();
+  }
+
+  @NonNull
+  public static <T extends Tuple> Promise<T, Throwable> when(@NonNull ExecutorService executor,
+                                                             @NonNull PromiseTask.Zip<T> zip, @NonNull Mode... modes) {
+    return new DeferredTrigger<T, Throwable>(executor, zip, modes).promise();
+  }
+
   @NonNull
   public static Promise<Object, Throwable> when(@NonNull ExecutorService executor, @NonNull PromiseTask.Race race) {
     return new DeferredTrigger<Object, Throwable>(executor, race).promise();
   }
 
+  @NonNull
+  public static Promise<Object, Throwable> when(@NonNull ExecutorService executor, @NonNull PromiseTask.Race race,
+                                                @NonNull Mode... modes) {
+    return new DeferredTrigger<Object, Throwable>(executor, race, modes).promise();
+  }
+
+  @NonNull
+  public static Promise<Object[], Throwable[]> when(@NonNull ExecutorService executor, @NonNull PromiseTask.Quorum quorum) {
+    return new DeferredTrigger<Object[], Throwable[]>(executor, quorum).promise();
+  }
+
+  @NonNull
+  public static Promise<Object[], Throwable[]> when(@NonNull ExecutorService executor, @NonNull PromiseTask.Quorum quorum,
+                                                    @NonNull Mode... modes) {
+    return new DeferredTrigger<Object[], Throwable[]>(executor, quorum, modes).promise();
+  }
+
+  /**
+   * A Promise of a value that is computed once and then shared by every callback added later, without
+   * running the task again. It is the same as {@code when(executor, single(task))}, named for declaring
+   * such values up front: the task starts on the first done() or await(), on this promise or on a
+   * then() stage after it. Adding then() stages alone runs nothing.
+   */
+  @NonNull
+  public static <F> Promise<F, Throwable> lazy(@NonNull ExecutorService executor, @NonNull Callable<F> task) {
+    return new DeferredTrigger<F, Throwable>(executor, single(task)).promise();
+  }
+
+  /**
+   * An already fulfilled Promise. Nothing is executed, and callbacks added to it run right away on the calling thread.
+   * The tasks of following then() stages also run on the calling thread; use
+   * {@link #resolved(ExecutorService, Object)} to run them on an executor.
+   * Promises of null are shared instances.
+   */
+  @NonNull
+  public static <F, R> Promise<F, R> resolved(@Nullable F value) {
+    return DeferredSettled.resolved(DeferredSettled.DIRECT, value);
+  }
+
+  /**
+   * An already fulfilled Promise, whose following then() stages run their tasks on the executor.
+   */
+  @NonNull
+  public static <F, R> Promise<F, R> resolved(@NonNull ExecutorService executor, @Nullable F value) {
+    return DeferredSettled.resolved(executor, value);
+  }
+
+  /**
+   * An already rejected Promise. See {@link #resolved(Object)}.
+   */
+  @NonNull
+  public static <F, R> Promise<F, R> rejected(@Nullable R reason) {
+    return DeferredSettled.rejected(DeferredSettled.DIRECT, reason);
+  }
+
+  /**
+   * An already rejected Promise. See {@link #resolved(ExecutorService, Object)}.
+   */
+  @NonNull
+  public static <F, R> Promise<F, R> rejected(@NonNull ExecutorService executor, @Nullable R reason) {
+    return DeferredSettled.rejected(executor, reason);
+  }
+
+  /**
+   * Creates a Promise that is settled from outside through the returned {@link Resolver}.
+   * The executor runs the tasks of the following then() stages.
+   */
+  @NonNull
+  public static <F, R> Resolver<F, R> resolver(@NonNull ExecutorService executor) {
+    return new DeferredResolver<>(executor);
+  }
+
   @NonNull
   public static PromiseTask.Single<Void> single(@NonNull Runnable task) {
     return new PromiseTask.Single<>(task);
@@ -58,16 +169,194 @@ public abstract class Promise<F, R> {
     return new PromiseTask.Single<>(task);
   }
 
+  /**
+   * Runs the task, and runs a backup copy of it if the first has not settled within the delay of the policy.
+   * Whichever copy fulfills first wins and the other is cancelled. Rejects once every started copy has rejected.
+   * Share one policy between the calls to the same backend, so that its delay follows their latency.
+   * The task may be called twice at the same time, so it must be safe to run concurrently, and its
+   * side effects must be safe to happen twice, e.g. an idempotent read.
+   */
+  @NonNull
+  public static <F> PromiseTask.Single<F> hedged(@NonNull Callable<F> task, @NonNull HedgePolicy policy) {
+    return new PromiseTask.Hedged<>(task, policy);
+  }
+
+  /**
+   * Maps every value of the input, and fulfills with the results in the same order.
+   * The values are split into chunks that are claimed by a few tasks on the executor, so no task or
+   * promise is created per value. The chunks get smaller towards the end, so the tasks finish together.
+   * Rejects with the first exception thrown by the callback; the values not yet mapped are skipped.
+   */
+  @NonNull
+  public static <T, U> PromiseTask.Map<T, U> map(@NonNull Collection<? extends T> input,
+                                                 @NonNull MapCallback<? super T, ? extends U> callback) {
+    return new PromiseTask.Map<>(input, callback);
+  }
+
   @NonNull
   public static PromiseTask.All all(@NonNull Object... taskArray) {
     return new PromiseTask.All(taskArray);
   }
 
+  /**
+   * Like {@link #all(Object...)}, but runs at most {@code parallelism} tasks at a time.
+   * The next task is taken from {@code tasks} only when a running one settles,
+   * so the tasks do not have to exist up front. Settles with one value per task taken.
+   */
+  @NonNull
+  public static PromiseTask.All all(int parallelism, @NonNull Iterable<?> tasks) {
+    return new PromiseTask.All(parallelism, tasks);
+  }
+
+  /**
+   * See {@link #all(int, Iterable)}. The iterator is only walked once, so unlike a task built from an
+   * Iterable, running the returned task again takes no tasks.
+   */
+  @NonNull
+  public static PromiseTask.All all(int parallelism, @NonNull Iterator<?> tasks) {
+    return new PromiseTask.All(parallelism, tasks);
+  }
+
+  /**
+   * Like {@link #all(Object...)}, but fulfills with an int[] that the tasks write into, without boxing their results.
+   * It is not an overload of all(), which would make a call without arguments ambiguous.
+   */
+  @NonNull
+  public static PromiseTask.AllInt allInt(@NonNull IntCallable... taskArray) {
+    return new PromiseTask.AllInt(taskArray);
+  }
+
+  /**
+   * Like {@link #all(Object...)}, but fulfills with a long[] that the tasks write into, without boxing their results.
+   */
+  @NonNull
+  public static PromiseTask.AllLong allLong(@NonNull LongCallable... taskArray) {
+    return new PromiseTask.AllLong(taskArray);
+  }
+
+  /**
+   * Like {@link #all(Object...)}, but fulfills with a double[] that the tasks write into, without boxing their results.
+   */
+  @NonNull
+  public static PromiseTask.AllDouble allDouble(@NonNull DoubleCallable... taskArray) {
+    return new PromiseTask.AllDouble(taskArray);
+  }
+
+  /**
+   * Runs the tasks like {@link #all(Object...)}, and fulfills with their values in the typed fields of a {@link Tuple}.
+   * Rejects with the first rejection, and cancels the tasks that have not settled yet.
+   * The tasks must come from {@link #single(Callable)}; hedged and map tasks throw IllegalArgumentException.
+   */
+  @NonNull
+  public static <A, B> PromiseTask.Zip<Tuple.Of2<A, B>> zip(@NonNull PromiseTask.Single<A> first,
+                                                            @NonNull PromiseTask.Single<B> second) {
+    return new PromiseTask.Zip<>(first, second);
+  }
+
+  /**
+   * See {@link #zip(PromiseTask.Single, PromiseTask.Single)}.
+   */
+  @NonNull
+  public static <A, B, C> PromiseTask.Zip<Tuple.Of3<A, B, C>> zip(@NonNull PromiseTask.Single<A> first,
+                                                                  @NonNull PromiseTask.Single<B> second,
+                                                                  @NonNull PromiseTask.Single<C> third) {
+    return new PromiseTask.Zip<>(first, second, third);
+  }
+
+  /**
+   * See {@link #zip(PromiseTask.Single, PromiseTask.Single)}.
+   */
+  @NonNull
+  public static <A, B, C, D> PromiseTask.Zip<Tuple.Of4<A, B, C, D>> zip(@NonNull PromiseTask.Single<A> first,
+                                                                        @NonNull PromiseTask.Single<B> second,
+                                                                        @NonNull PromiseTask.Single<C> third,
+                                                                        @NonNull PromiseTask.Single<D> fourth) {
+    return new PromiseTask.Zip<>(first, second, third, fourth);
+  }
+
+  /**
+   * See {@link #zip(PromiseTask.Single, PromiseTask.Single)}.
+   */
+  @NonNull
+  public static <A, B, C, D, E> PromiseTask.Zip<Tuple.Of5<A, B, C, D, E>> zip(@NonNull PromiseTask.Single<A> first,
+                                                                              @NonNull PromiseTask.Single<B> second,
+                                                                              @NonNull PromiseTask.Single<C> third,
+                                                                              @NonNull PromiseTask.Single<D> fourth,
+                                                                              @NonNull PromiseTask.Single<E> fifth) {
+    return new PromiseTask.Zip<>(first, second, third, fourth, fifth);
+  }
+
+  /**
+   * See {@link #zip(PromiseTask.Single, PromiseTask.Single)}.
+   */
+  @NonNull
+  public static <A, B, C, D, E, F> PromiseTask.Zip<Tuple.Of6<A, B, C, D, E, F>> zip(@NonNull PromiseTask.Single<A> first,
+                                                                                    @NonNull PromiseTask.Single<B> second,
+                                                                                    @NonNull PromiseTask.Single<C> third,
+                                                                                    @NonNull PromiseTask.Single<D> fourth,
+                                                                                    @NonNull PromiseTask.Single<E> fifth,
+                                                                                    @NonNull PromiseTask.Single<F> sixth) {
+    return new PromiseTask.Zip<>(first, second, third, fourth, fifth, sixth);
+  }
+
+  /**
+   * See {@link #zip(PromiseTask.Single, PromiseTask.Single)}.
+   */
+  @NonNull
+  public static <A, B, C, D, E, F, G> PromiseTask.Zip<Tuple.Of7<A, B, C, D, E, F, G>> zip(@NonNull PromiseTask.Single<A> first,
+                                                                                          @NonNull PromiseTask.Single<B> second,
+                                                                                          @NonNull PromiseTask.Single<C> third,
+                                                                                          @NonNull PromiseTask.Single<D> fourth,
+                                                                                          @NonNull PromiseTask.Single<E> fifth,
+                                                                                          @NonNull PromiseTask.Single<F> sixth,
+                                                                                          @NonNull PromiseTask.Single<G> seventh) {
+    return new PromiseTask.Zip<>(first, second, third, fourth, fifth, sixth, seventh);
+  }
+
+  /**
+   * See {@link #zip(PromiseTask.Single, PromiseTask.Single)}.
+   */
+  @NonNull
+  public static <A, B, C, D, E, F, G, H> PromiseTask.Zip<Tuple.Of8<A, B, C, D, E, F, G, H>> zip(@NonNull PromiseTask.Single<A> first,
+                                                                                                @NonNull PromiseTask.Single<B> second,
+                                                                                                @NonNull PromiseTask.Single<C> third,
+                                                                                                @NonNull PromiseTask.Single<D> fourth,
+                                                                                                @NonNull PromiseTask.Single<E> fifth,
+                                                                                                @NonNull PromiseTask.Single<F> sixth,
+                                                                                                @NonNull PromiseTask.Single<G> seventh,
+                                                                                                @NonNull PromiseTask.Single<H> eighth) {
+    return new PromiseTask.Zip<>(first, second, third, fourth, fifth, sixth, seventh, eighth);
+  }
+
   @NonNull
   public static PromiseTask.Race race(@NonNull Object... taskArray) {
     return new PromiseTask.Race(taskArray);
   }
 
+  /**
+   * Fulfills as soon as {@code required} of the tasks fulfill, and rejects as soon as that is no longer possible.
+   * Both values are aligned to the tasks; tasks that did not fulfill (or reject) are null.
+   * The remaining tasks are cancelled. {@code required} 1 is "any", and the number of tasks is like {@link #all}.
+   */
+  @NonNull
+  public static PromiseTask.Quorum quorum(int required, @NonNull Object... taskArray) {
+    return new PromiseTask.Quorum(required, taskArray);
+  }
+
+  public enum Mode {
+    /**
+     * When a stage completes on a worker thread, a following {@link PromiseTask.Single} stage runs
+     * on that same thread instead of being submitted to the executor again.
+     * Stages whose callback is dispatched elsewhere (e.g. {@link #atMain()}) are submitted as usual.
+     */
+    INLINE,
+    /**
+     * The task is started by {@code when()} itself, instead of by the first done() or await().
+     * Its result is kept until callbacks are added, and they run right away if it has already settled.
+     */
+    EAGER,
+  }
+
   enum State {
     PENDING,
     EXECUTING,
@@ -81,6 +370,9 @@ public abstract class Promise<F, R> {
   @NonNull
   public abstract Promise<F, R> at(@NonNull Handler handler);
 
+  @NonNull
+  public abstract Promise<F, R> at(@NonNull CallbackDispatcher dispatcher);
+
   @NonNull
   public abstract State state();
 
@@ -96,17 +388,54 @@ public abstract class Promise<F, R> {
 
   public abstract R rejectedValue();
 
+  /**
+   * Starts the execution like done(), and blocks until this promise settles.
+   * On a worker of a {@link java.util.concurrent.ForkJoinPool}, the pending tasks of the pool are run while waiting,
+   * so nested Promise.all on the same pool do not run out of workers. Elsewhere, do not await on a worker
+   * of the executor the promise itself needs.
+   *
+   * @return the fulfilled value
+   * @throws RejectedException with the rejected value
+   */
+  public abstract F await() throws InterruptedException, RejectedException;
+
   @NonNull
   abstract ExecutorService executor();
 
+  abstract boolean hasMode(@NonNull Mode mode);
+
   @NonNull
   abstract Promise<F, R> resolve(F value);
 
+  /**
+   * @return false if the promise has already been settled.
+   */
+  abstract boolean tryResolve(F value);
+
+  /**
+   * @return false if the promise has already been settled.
+   */
+  abstract boolean tryReject(R reason);
+
+  abstract void notifyFulfilled(int index, Object value);
+
+  abstract void notifyRejected(int index, Throwable reason);
+
   @NonNull
   abstract Promise<F, R> reject(R reason);
 
+  /**
+   * @return true if this call moved the promise from PENDING to EXECUTING,
+   * i.e. the caller is the one that has to start the task.
+   */
+  abstract boolean execute();
+
+  /**
+   * Listens to each task of a {@link PromiseTask.All} as it settles. Other promises never call it.
+   * Like then(), this does not start the execution.
+   */
   @NonNull
-  abstract Promise<F, R> execute();
+  public abstract Promise<F, R> progress(@NonNull ProgressCallbackAll progressCallback);
 
   @NonNull
   public abstract Promise<F, R> done(@NonNull FulfillCallbackDone<F> fulfillCallback);
@@ -136,6 +465,15 @@ public abstract class Promise<F, R> {
   public abstract <NEXT_F> Promise<NEXT_F, Throwable> then(@NonNull FulfillCallbackDone<F> fulfillCallback,
                                                            @NonNull RejectCallbackThenSingle<R, NEXT_F> rejectCallback);
 
+  @NonNull
+  public abstract <NEXT_F> Promise<NEXT_F, Throwable> then(@NonNull FulfillCallbackThenPromise<F, NEXT_F> fulfillCallback);
+
+  @NonNull
+  public abstract <NEXT_F> Promise<NEXT_F, Throwable> then(@NonNull FulfillCallbackThenApply<F, NEXT_F> fulfillCallback);
+
+  @NonNull
+  public abstract Promise<F, Throwable> then(@NonNull FulfillCallbackThenAccept<F> fulfillCallback);
+
   @NonNull
   public abstract Promise<Object[], Throwable[]> then(@NonNull FulfillCallbackThenAll<F> fulfillCallback);
 
@@ -25,30 +25,51 @@
 package com.github.sho5nn.promise;
 
 import android.os.Handler;
-import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 class PromiseImpl<F, R> extends Promise<F, R> {
 
+  private static final int PENDING = 0;
+  private static final int EXECUTING = 1;
+  private static final int COMPLETING = 2;
+  private static final int FULFILLED = 3;
+  private static final int REJECTED = 4;
+
+  @SuppressWarnings("rawtypes")
+  private static final AtomicIntegerFieldUpdater<PromiseImpl> STATE =
+    AtomicIntegerFieldUpdater.newUpdater(PromiseImpl.class, "state");
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<PromiseImpl, DispatchObject> LISTENERS =
+    AtomicReferenceFieldUpdater.newUpdater(PromiseImpl.class, DispatchObject.class, "listeners");
+
+  // Marks a listener stack that has been drained. Listeners that find it run right away.
+  @SuppressWarnings("rawtypes")
+  private static final DispatchObject SETTLED = new DispatchObject() {
+  };
+
   @NonNull
   private ExecutorService executor;
   @NonNull
-  private State state;
-  @NonNull
   private Deferred.Trigger<?, ?> trigger;
+  // Treiber stack of listeners, newest first, or SETTLED once the result has been dispatched.
   @Nullable
-  private DispatchObject<F> resolvedDispatch;
-  @Nullable
-  private DispatchObject<R> rejectedDispatch;
+  private volatile DispatchObject<F, R> listeners;
+
+  // PENDING -> EXECUTING -> COMPLETING -> FULFILLED / REJECTED.
+  // The value fields are written only by the thread that won the CAS to COMPLETING,
+  // and are published by the volatile write of the final state.
+  private volatile int state;
 
   private F resolvedValue;
   private R rejectedValue;
 
   PromiseImpl(@NonNull ExecutorService executor, @NonNull Deferred.Trigger<?, ?> trigger) {
-    this.state = State.PENDING;
+    this.state = PENDING;
     this.executor = executor;
     this.trigger = trigger;
   }
@@ -56,54 +77,67 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   @NonNull
   @Override
   public Promise<F, R> atMain() {
-    Handler handler = new Handler(Looper.getMainLooper());
-    if (resolvedDispatch != null) resolvedDispatch.setHandler(handler);
-    if (rejectedDispatch != null) rejectedDispatch.setHandler(handler);
-    return this;
+    return at(CallbackDispatcher.HandlerAdapter.main());
   }
 
   @NonNull
   @Override
   public Promise<F, R> at(@NonNull Handler handler) {
-    if (resolvedDispatch != null) resolvedDispatch.setHandler(handler);
-    if (rejectedDispatch != null) rejectedDispatch.setHandler(handler);
+    return at(new CallbackDispatcher.HandlerAdapter(handler));
+  }
+
+  @NonNull
+  @Override
+  public Promise<F, R> at(@NonNull CallbackDispatcher dispatcher) {
+    DispatchObject<F, R> head = listeners;
+    if (head != null && head != SETTLED) head.setDispatcher(dispatcher);
     return this;
   }
 
   @NonNull
   @Override
   public State state() {
-    return state;
+    switch (state) {
+      case PENDING:
+        return State.PENDING;
+      case FULFILLED:
+        return State.FULFILLED;
+      case REJECTED:
+        return State.REJECTED;
+      default:
+        return State.EXECUTING;
+    }
   }
 
   @Override
   public boolean isPending() {
-    return state == State.PENDING;
+    return state == PENDING;
   }
 
   @Override
   public boolean isExecuting() {
-    return state == State.EXECUTING;
+    int s = state;
+    return s == EXECUTING || s == COMPLETING;
   }
 
   @Override
   public boolean isFulfilled() {
-    return state == State.FULFILLED;
+    return state == FULFILLED;
   }
 
   @Override
   public boolean isRejected() {
-    return state == State.REJECTED;
+    return state == REJECTED;
   }
 
   @Override
   public F resolvedValue() {
-    return resolvedValue;
+    return state == FULFILLED ? resolvedValue : null;
   }
 
   @Override
   public R rejectedValue() {
-    return rejectedValue;
+    return state == REJECTED ? rejectedValue : null;
   }
 
   @NonNull
@@ -112,69 +146,163 @@ class PromiseImpl<F, R> extends Promise<F, R> {
     return executor;
   }
 
+  @Override
+  boolean hasMode(@NonNull Mode mode) {
+    return trigger.hasMode(mode);
+  }
+
+  @Override
+  boolean execute() {
+    return STATE.compareAndSet(this, PENDING, EXECUTING);
+  }
+
   @NonNull
   @Override
-  Promise<F, R> execute() {
-    if (isPending()) {
-      state = State.EXECUTING;
+  Promise<F, R> resolve(F value) {
+    if (!tryResolve(value) && awaitSettled() == REJECTED) {
+      throw new IllegalStateException("Cannot resolve, because Promise is rejected.");
     }
     return this;
   }
 
   @NonNull
   @Override
-  Promise<F, R> resolve(F value) {
-    synchronized (this) {
-      if (isRejected()) {
-        throw new IllegalStateException("Cannot resolve, because Promise is rejected.");
-      }
+  Promise<F, R> reject(R reason) {
+    if (!tryReject(reason) && awaitSettled() == FULFILLED) {
+      throw new IllegalStateException("Cannot reject, because Promise is resolved.");
+    }
+    return this;
+  }
 
-      if (isPending() || isExecuting()) {
-        resolvedValue = value;
-        state = State.FULFILLED;
-      }
+  @Override
+  boolean tryResolve(F value) {
+    if (!tryComplete()) return false;
+    resolvedValue = value;
+    state = FULFILLED;
+    dispatchAll();
+    return true;
+  }
+
+  @Override
+  boolean tryReject(R reason) {
+    if (!tryComplete()) return false;
+    rejectedValue = reason;
+    state = REJECTED;
+    dispatchAll();
+    return true;
+  }
+
+  /**
+   * @return true if the caller won the transition to COMPLETING and must publish the result.
+   */
+  private boolean tryComplete() {
+    for (;;) {
+      int s = state;
+      if (s >= COMPLETING) return false;
+      if (STATE.compareAndSet(this, s, COMPLETING)) return true;
+    }
+  }
+
+  private int awaitSettled() {
+    int s;
+    while ((s = state) == COMPLETING) {
+      Thread.yield();
+    }
+    return s;
+  }
 
-      if (resolvedDispatch != null) {
-        resolvedDispatch.dispatch(resolvedValue);
+  @SuppressWarnings("unchecked")
+  private void dispatchAll() {
+    DispatchObject<F, R> head = LISTENERS.getAndSet(this, SETTLED);
+    if (head == null) return;
+    if (head.next == null) {
+      dispatch(head);
+      return;
+    }
+
+    // Links are never modified once pushed, since progress notifications may still be walking them.
+    // Copy so that listeners run in the order they were added.
+    int size = 0;
+    for (DispatchObject<F, R> listener = head; listener != null; listener = listener.next) {
+      size++;
+    }
+    DispatchObject<F, R>[] ordered = (DispatchObject<F, R>[]) new DispatchObject<?, ?>[size];
+    for (DispatchObject<F, R> listener = head; listener != null; listener = listener.next) {
+      ordered[--size] = listener;
+    }
+    // A throwing listener must not keep the ones after it from being notified.
+    RuntimeException failure = null;
+    for (DispatchObject<F, R> listener : ordered) {
+      try {
+        dispatch(listener);
+      } catch (RuntimeException e) {
+        if (failure == null) failure = e;
       }
-      return this;
+    }
+    if (failure != null) throw failure;
+  }
+
+  private void dispatch(@NonNull DispatchObject<F, R> listener) {
+    if (state == FULFILLED) {
+      listener.dispatchResolved(resolvedValue);
+    } else {
+      listener.dispatchRejected(rejectedValue);
     }
   }
 
-  @NonNull
   @Override
-  Promise<F, R> reject(R reason) {
-    synchronized (this) {
-      if (isFulfilled()) {
-        throw new IllegalStateException("Cannot reject, because Promise is resolved.");
-      }
+  @SuppressWarnings("unchecked")
+  void notifyFulfilled(int index, Object value) {
+    for (DispatchObject<F, R> listener = listeners; listener != null && listener != SETTLED; listener = listener.next) {
+      if (listener instanceof ProgressObject) ((ProgressObject<F, R>) listener).dispatchProgress(index, value);
+    }
+  }
 
-      if (isPending() || isExecuting()) {
-        rejectedValue = reason;
-        state = State.REJECTED;
-      }
+  @Override
+  @SuppressWarnings("unchecked")
+  void notifyRejected(int index, Throwable reason) {
+    for (DispatchObject<F, R> listener = listeners; listener != null && listener != SETTLED; listener = listener.next) {
+      if (listener instanceof ProgressObject) ((ProgressObject<F, R>) listener).dispatchProgressRejected(index, reason);
+    }
+  }
 
-      if (rejectedDispatch != null) {
-        rejectedDispatch.dispatch(reason);
+  private void listen(@NonNull DispatchObject<F, R> listener) {
+    for (;;) {
+      DispatchObject<F, R> head = listeners;
+      if (head == SETTLED) {
+        dispatch(listener);
+        return;
       }
-      return this;
+      listener.next = head;
+      if (LISTENERS.compareAndSet(this, head, listener)) return;
     }
   }
 
-  private void listenResolved(@NonNull DispatchObject.Dispatcher<F> dispatcher) {
-    resolvedDispatch = new DispatchObject<>(dispatcher);
+  @Override
+  public F await() throws InterruptedException, RejectedException {
+    if (state < COMPLETING) {
+      SettledLatch<F, R> latch = new SettledLatch<>();
+      listen(latch);
+      trigger.execute();
+      ForkJoinSupport.await(latch);
+    }
+    if (awaitSettled() == REJECTED) throw new RejectedException(rejectedValue);
+    return resolvedValue;
   }
 
-  private void listenRejected(@NonNull DispatchObject.Dispatcher<R> dispatcher) {
-    rejectedDispatch = new DispatchObject<>(dispatcher);
+  @NonNull
+  @Override
+  public Promise<F, R> progress(@NonNull ProgressCallbackAll progressCallback) {
+    listen(new ProgressObject<F, R>(progressCallback));
+    return this;
   }
 
   @NonNull
   @Override
   public Promise<F, R> done(@NonNull final FulfillCallbackDone<F> fulfillCallback) {
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         fulfillCallback.onFulfilled(value);
       }
     });
@@ -185,9 +313,9 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   @NonNull
   @Override
   public Promise<F, R> done(@NonNull final RejectCallbackDone<R> rejectCallback) {
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         rejectCallback.onRejected(value);
       }
     });
@@ -199,15 +327,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   @Override
   public Promise<F, R> done(@NonNull final FulfillCallbackDone<F> fulfillCallback,
                             @NonNull final RejectCallbackDone<R> rejectCallback) {
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         fulfillCallback.onFulfilled(value);
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         rejectCallback.onRejected(value);
       }
     });
@@ -219,15 +346,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   @Override
   public <NEXT_F> Promise<NEXT_F, Throwable> then(@NonNull final FulfillCallbackThenSingle<F, NEXT_F> fulfillCallback) {
     final Deferred.Later<NEXT_F, Throwable> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         later.execute(fulfillCallback.onFulfilled(value));
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         later.promise().reject((Throwable) value);
       }
     });
@@ -238,16 +364,15 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   @Override
   public <NEXT_F> Promise<NEXT_F, Throwable> then(@NonNull final RejectCallbackThenSingle<R, NEXT_F> rejectCallback) {
     final Deferred.Later<NEXT_F, Throwable> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @SuppressWarnings("unchecked")
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         later.promise().resolve((NEXT_F) value);
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         later.execute(rejectCallback.onRejected(value));
       }
     });
@@ -259,15 +384,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   public <NEXT_F> Promise<NEXT_F, Throwable> then(@NonNull final FulfillCallbackThenSingle<F, NEXT_F> fulfillCallback,
                                                   @NonNull final RejectCallbackThenSingle<R, NEXT_F> rejectCallback) {
     final Deferred.Later<NEXT_F, Throwable> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         later.execute(fulfillCallback.onFulfilled(value));
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         later.execute(rejectCallback.onRejected(value));
       }
     });
@@ -279,15 +403,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   public <NEXT_F> Promise<NEXT_F, Throwable> then(@NonNull final FulfillCallbackThenSingle<F, NEXT_F> fulfillCallback,
                                                   @NonNull final RejectCallbackDone<R> rejectCallback) {
     final Deferred.Later<NEXT_F, Throwable> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         later.execute(fulfillCallback.onFulfilled(value));
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         rejectCallback.onRejected(value);
       }
     });
@@ -299,34 +422,126 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   public <NEXT_F> Promise<NEXT_F, Throwable> then(@NonNull final FulfillCallbackDone<F> fulfillCallback,
                                                   @NonNull final RejectCallbackThenSingle<R, NEXT_F> rejectCallback) {
     final Deferred.Later<NEXT_F, Throwable> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         fulfillCallback.onFulfilled(value);
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         later.execute(rejectCallback.onRejected(value));
       }
     });
     return later.promise();
   }
 
+  @NonNull
+  @Override
+  public <NEXT_F> Promise<NEXT_F, Throwable> then(@NonNull final FulfillCallbackThenPromise<F, NEXT_F> fulfillCallback) {
+    final Deferred.Later<NEXT_F, Throwable> later = new DeferredLater<>(executor, trigger);
+    listen(new DispatchObject<F, R>() {
+      @Override
+      void onResolved(F value) {
+        adopt(fulfillCallback.onFulfilled(value), later.promise());
+      }
+
+      @Override
+      void onRejected(R value) {
+        later.promise().reject(asThrowable(value));
+      }
+    });
+    return later.promise();
+  }
+
+  /**
+   * Settles {@code promise} with the result of {@code source} once it settles.
+   */
+  private static <V, E extends Throwable> void adopt(@NonNull Promise<V, E> source,
+                                                     @NonNull final Promise<V, Throwable> promise) {
+    source.done(new FulfillCallbackDone<V>() {
+      @Override
+      public void onFulfilled(V value) {
+        promise.resolve(value);
+      }
+    }, new RejectCallbackDone<E>() {
+      @Override
+      public void onRejected(E value) {
+        promise.reject(value);
+      }
+    });
+  }
+
+  /**
+   * The reason of a stage that rejects with Throwable. A reason of another type, e.g. the Throwable[] of
+   * Promise.all, is wrapped in a {@link RejectedException} that keeps it as {@link RejectedException#getReason()}.
+   */
+  @NonNull
+  private static Throwable asThrowable(@Nullable Object reason) {
+    return reason instanceof Throwable ? (Throwable) reason : new RejectedException(reason);
+  }
+
+  @NonNull
+  @Override
+  public <NEXT_F> Promise<NEXT_F, Throwable> then(@NonNull final FulfillCallbackThenApply<F, NEXT_F> fulfillCallback) {
+    final Deferred.Later<NEXT_F, Throwable> later = new DeferredLater<>(executor, trigger);
+    listen(new DispatchObject<F, R>() {
+      @Override
+      void onResolved(F value) {
+        NEXT_F next;
+        try {
+          next = fulfillCallback.onFulfilled(value);
+        } catch (Throwable e) {
+          later.promise().reject(e);
+          return;
+        }
+        later.promise().resolve(next);
+      }
+
+      @Override
+      void onRejected(R value) {
+        later.promise().reject(asThrowable(value));
+      }
+    });
+    return later.promise();
+  }
+
+  @NonNull
+  @Override
+  public Promise<F, Throwable> then(@NonNull final FulfillCallbackThenAccept<F> fulfillCallback) {
+    final Deferred.Later<F, Throwable> later = new DeferredLater<>(executor, trigger);
+    listen(new DispatchObject<F, R>() {
+      @Override
+      void onResolved(F value) {
+        try {
+          fulfillCallback.onFulfilled(value);
+        } catch (Throwable e) {
+          later.promise().reject(e);
+          return;
+        }
+        later.promise().resolve(value);
+      }
+
+      @Override
+      void onRejected(R value) {
+        later.promise().reject(asThrowable(value));
+      }
+    });
+    return later.promise();
+  }
+
   @NonNull
   @Override
   public Promise<Object[], Throwable[]> then(@NonNull final FulfillCallbackThenAll<F> fulfillCallback) {
     final Deferred.Later<Object[], Throwable[]> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         later.execute(fulfillCallback.onFulfilled(value));
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         later.promise().reject((Throwable[]) value);
       }
     });
@@ -337,15 +552,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   @Override
   public Promise<Object[], Throwable[]> then(@NonNull final RejectCallbackThenAll<R> rejectCallback) {
     final Deferred.Later<Object[], Throwable[]> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         later.promise().resolve((Object[]) value);
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         later.execute(rejectCallback.onRejected(value));
       }
     });
@@ -357,15 +571,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   public Promise<Object[], Throwable[]> then(@NonNull final FulfillCallbackThenAll<F> fulfillCallback,
                                              @NonNull final RejectCallbackThenAll<R> rejectCallback) {
     final Deferred.Later<Object[], Throwable[]> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         later.execute(fulfillCallback.onFulfilled(value));
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         later.execute(rejectCallback.onRejected(value));
       }
     });
@@ -377,15 +590,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   public Promise<Object[], Throwable[]> then(@NonNull final FulfillCallbackThenAll<F> fulfillCallback,
                                              @NonNull final RejectCallbackDone<R> rejectCallback) {
     final Deferred.Later<Object[], Throwable[]> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         later.execute(fulfillCallback.onFulfilled(value));
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         rejectCallback.onRejected(value);
       }
     });
@@ -397,15 +609,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   public Promise<Object[], Throwable[]> then(@NonNull final FulfillCallbackDone<F> fulfillCallback,
                                              @NonNull final RejectCallbackThenAll<R> rejectCallback) {
     final Deferred.Later<Object[], Throwable[]> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         fulfillCallback.onFulfilled(value);
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         later.execute(rejectCallback.onRejected(value));
       }
     });
@@ -416,15 +627,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   @Override
   public Promise<Object, Throwable> then(@NonNull final FulfillCallbackThenRace<F> fulfillCallback) {
     final Deferred.Later<Object, Throwable> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         later.execute(fulfillCallback.onFulfilled(value));
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         later.promise().reject((Throwable) value);
       }
     });
@@ -435,15 +645,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   @Override
   public Promise<Object, Throwable> then(@NonNull final RejectCallbackThenRace<R> rejectCallback) {
     final Deferred.Later<Object, Throwable> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         later.promise().resolve(value);
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         later.execute(rejectCallback.onRejected(value));
       }
     });
@@ -455,15 +664,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   public Promise<Object, Throwable> then(@NonNull final FulfillCallbackThenRace<F> fulfillCallback,
                                          @NonNull final RejectCallbackThenRace<R> rejectCallback) {
     final Deferred.Later<Object, Throwable> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         later.execute(fulfillCallback.onFulfilled(value));
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         later.execute(rejectCallback.onRejected(value));
       }
     });
@@ -475,15 +683,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   public Promise<Object, Throwable> then(@NonNull final FulfillCallbackThenRace<F> fulfillCallback,
                                          @NonNull final RejectCallbackDone<R> rejectCallback) {
     final Deferred.Later<Object, Throwable> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         later.execute(fulfillCallback.onFulfilled(value));
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         rejectCallback.onRejected(value);
       }
     });
@@ -495,15 +702,14 @@ class PromiseImpl<F, R> extends Promise<F, R> {
   public Promise<Object, Throwable> then(@NonNull final FulfillCallbackDone<F> fulfillCallback,
                                          @NonNull final RejectCallbackThenRace<R> rejectCallback) {
     final Deferred.Later<Object, Throwable> later = new DeferredLater<>(executor, trigger);
-    listenResolved(new DispatchObject.Dispatcher<F>() {
+    listen(new DispatchObject<F, R>() {
       @Override
-      public void dispatch(F value) {
+      void onResolved(F value) {
         fulfillCallback.onFulfilled(value);
       }
-    });
-    listenRejected(new DispatchObject.Dispatcher<R>() {
+
       @Override
-      public void dispatch(R value) {
+      void onRejected(R value) {
         later.execute(rejectCallback.onRejected(value));
       }
     });
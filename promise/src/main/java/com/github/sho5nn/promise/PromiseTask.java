@@ -25,8 +25,11 @@
 package com.github.sho5nn.promise;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
 
@@ -51,37 +54,342 @@ public interface PromiseTask {
     }
   }
 
+  /**
+   * A {@link Single} that starts a backup copy of its task when the first one is slow.
+   * See {@link Promise#hedged(Callable, HedgePolicy)}.
+   */
+  class Hedged<S> extends Single<S> {
+
+    @NonNull
+    final HedgePolicy policy;
+
+    @SuppressWarnings("ConstantConditions")
+    Hedged(@NonNull Callable<S> task, @NonNull HedgePolicy policy) {
+      super(task);
+      if (policy == null) {
+        throw new IllegalArgumentException("policy is null");
+      }
+      this.policy = policy;
+    }
+  }
+
+  /**
+   * A {@link Single} that maps every value of a collection, in chunks of values run as tasks of their own.
+   * See {@link Promise#map(Collection, MapCallback)}.
+   */
+  class Map<T, U> extends Single<List<U>> {
+
+    @NonNull
+    final Object[] values;
+    @NonNull
+    final MapCallback<? super T, ? extends U> callback;
+    int parallelism = Runtime.getRuntime().availableProcessors();
+
+    @SuppressWarnings("ConstantConditions")
+    Map(@NonNull Collection<? extends T> input, @NonNull MapCallback<? super T, ? extends U> callback) {
+      this(input == null ? null : input.toArray(), callback);
+    }
+
+    private Map(@NonNull Object[] values, @NonNull MapCallback<? super T, ? extends U> callback) {
+      // maps all the values in one task, for inputs too small to split
+      super(new Sequential<>(values, callback));
+      this.values = values;
+      this.callback = callback;
+    }
+
+    /**
+     * The number of chunks mapped at the same time. Defaults to the number of processors.
+     */
+    @NonNull
+    public Map<T, U> parallelism(int parallelism) {
+      if (parallelism <= 0) {
+        throw new IllegalArgumentException("parallelism must be positive. actual:" + parallelism);
+      }
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    private static class Sequential<T, U> implements Callable<List<U>> {
+
+      @NonNull
+      private final Object[] values;
+      @NonNull
+      private final MapCallback<? super T, ? extends U> callback;
+
+      @SuppressWarnings("ConstantConditions")
+      Sequential(@NonNull Object[] values, @NonNull MapCallback<? super T, ? extends U> callback) {
+        if (values == null || callback == null) {
+          throw new IllegalArgumentException("task is null");
+        }
+        this.values = values;
+        this.callback = callback;
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public List<U> call() throws Exception {
+        Object[] results = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+          results[i] = callback.map((T) values[i]);
+        }
+        return (List<U>) Arrays.asList(results);
+      }
+    }
+  }
+
   class All implements PromiseTask {
 
+    private static final Single<?>[] NO_TASKS = new Single<?>[0];
+
     @NonNull
-    final List<Single> taskList = new LinkedList<>();
+    final Single<?>[] tasks;
+    // When source is set, tasks is empty and at most parallelism tasks are pulled from source at a time.
+    // Its iterator is taken when the task runs, so a task built from a collection can be run again.
+    @Nullable
+    final Iterable<?> source;
+    final int parallelism;
+    boolean failFast;
+    boolean mayInterruptIfRunning;
+    int retries;
 
     @SuppressWarnings({"ConstantConditions", "ThrowableInstanceNeverThrown"})
     All(@NonNull Object[] taskArray) {
+      if (taskArray == null || taskArray.length == 0) {
+        throw new IllegalArgumentException("task is null");
+      }
+      tasks = new Single<?>[taskArray.length];
+      for (int i = 0; i < taskArray.length; i++) {
+        if (taskArray[i] == null) throw new IllegalArgumentException("task is null");
+        tasks[i] = new Single<>(taskArray[i]);
+      }
+      source = null;
+      parallelism = 0;
+    }
+
+    All(int parallelism, @NonNull Iterator<?> source) {
+      this(parallelism, once(source));
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    All(int parallelism, @NonNull Iterable<?> source) {
+      if (parallelism <= 0) {
+        throw new IllegalArgumentException("parallelism must be positive. actual:" + parallelism);
+      }
+      if (source == null) {
+        throw new IllegalArgumentException("task is null");
+      }
+      this.tasks = NO_TASKS;
+      this.source = source;
+      this.parallelism = parallelism;
+    }
+
+    /**
+     * An iterator can only be walked once, so every run of such a task after the first takes nothing.
+     */
+    @Nullable
+    private static Iterable<?> once(@Nullable final Iterator<?> iterator) {
+      if (iterator == null) return null;
+      return new Iterable<Object>() {
+        @SuppressWarnings("unchecked")
+        @Override
+        public Iterator<Object> iterator() {
+          return (Iterator<Object>) iterator;
+        }
+      };
+    }
+
+    /**
+     * Rejects as soon as any task rejects, instead of waiting for every task to settle.
+     * The rejected value only holds that reason, and the tasks that have not settled yet are cancelled.
+     *
+     * @param mayInterruptIfRunning also interrupt the cancelled tasks that are already running
+     */
+    @NonNull
+    public All failFast(boolean mayInterruptIfRunning) {
+      this.failFast = true;
+      this.mayInterruptIfRunning = mayInterruptIfRunning;
+      return this;
+    }
+
+    /**
+     * Runs a rejected task again, up to {@code times} more times, before its rejection counts.
+     * Only the rejected tasks are run again; the values of the fulfilled ones are kept.
+     */
+    @NonNull
+    public All retry(int times) {
+      if (times < 0) {
+        throw new IllegalArgumentException("times must not be negative. actual:" + times);
+      }
+      this.retries = times;
+      return this;
+    }
+  }
+
+  /**
+   * An All of {@link IntCallable}, {@link LongCallable} or {@link DoubleCallable}, which fulfills with a primitive array.
+   *
+   * @param <A> the array of the results
+   */
+  abstract class AllPrimitive<A> implements PromiseTask {
+
+    @NonNull
+    final Object[] tasks;
+
+    @SuppressWarnings({"ConstantConditions", "ThrowableInstanceNeverThrown"})
+    AllPrimitive(@NonNull Object[] taskArray) {
       if (taskArray == null || taskArray.length == 0) {
         throw new IllegalArgumentException("task is null");
       }
       for (Object task : taskArray) {
-        if (task == null) new IllegalArgumentException("task is null");
-        taskList.add(new Single(task));
+        if (task == null) throw new IllegalArgumentException("task is null");
       }
+      tasks = taskArray.clone();
+    }
+
+    @NonNull
+    abstract A newResults(int size);
+
+    /**
+     * Runs the task at index and stores its result into results, without boxing it.
+     */
+    abstract void call(int index, @NonNull A results) throws Exception;
+  }
+
+  class AllInt extends AllPrimitive<int[]> {
+
+    AllInt(@NonNull IntCallable[] taskArray) {
+      super(taskArray);
+    }
+
+    @NonNull
+    @Override
+    int[] newResults(int size) {
+      return new int[size];
+    }
+
+    @Override
+    void call(int index, @NonNull int[] results) throws Exception {
+      results[index] = ((IntCallable) tasks[index]).call();
+    }
+  }
+
+  class AllLong extends AllPrimitive<long[]> {
+
+    AllLong(@NonNull LongCallable[] taskArray) {
+      super(taskArray);
+    }
+
+    @NonNull
+    @Override
+    long[] newResults(int size) {
+      return new long[size];
+    }
+
+    @Override
+    void call(int index, @NonNull long[] results) throws Exception {
+      results[index] = ((LongCallable) tasks[index]).call();
+    }
+  }
+
+  class AllDouble extends AllPrimitive<double[]> {
+
+    AllDouble(@NonNull DoubleCallable[] taskArray) {
+      super(taskArray);
+    }
+
+    @NonNull
+    @Override
+    double[] newResults(int size) {
+      return new double[size];
+    }
+
+    @Override
+    void call(int index, @NonNull double[] results) throws Exception {
+      results[index] = ((DoubleCallable) tasks[index]).call();
+    }
+  }
+
+  /**
+   * See {@link Promise#zip(Single, Single)}.
+   *
+   * @param <T> the {@link Tuple} the values are written into
+   */
+  class Zip<T extends Tuple> implements PromiseTask {
+
+    @NonNull
+    final Single<?>[] tasks;
+
+    @SuppressWarnings({"ConstantConditions", "ThrowableInstanceNeverThrown"})
+    Zip(@NonNull Single<?>... taskArray) {
+      for (Single<?> task : taskArray) {
+        if (task == null) throw new IllegalArgumentException("task is null");
+        // each task runs as a plain callable, which would drop what a Hedged or Map task adds to it
+        if (task.getClass() != Single.class) {
+          throw new IllegalArgumentException("zip takes Promise.single() tasks only. actual:" + task.getClass().getSimpleName());
+        }
+      }
+      tasks = taskArray;
     }
   }
 
   class Race implements PromiseTask {
 
     @NonNull
-    final List<Single> taskList = new LinkedList<>();
+    final Single<?>[] tasks;
+    boolean interruptLosers;
 
     @SuppressWarnings({"ConstantConditions", "ThrowableInstanceNeverThrown"})
     Race(@NonNull Object[] taskArray) {
       if (taskArray == null || taskArray.length == 0) {
         throw new IllegalArgumentException("task is null");
       }
-      for (Object task : taskArray) {
-        if (task == null) throw new IllegalArgumentException("task is null");
-        taskList.add(new Single(task));
+      tasks = new Single<?>[taskArray.length];
+      for (int i = 0; i < taskArray.length; i++) {
+        if (taskArray[i] == null) throw new IllegalArgumentException("task is null");
+        tasks[i] = new Single<>(taskArray[i]);
+      }
+    }
+
+    /**
+     * The tasks that lose the race are always cancelled. With this, the ones already running are also interrupted.
+     */
+    @NonNull
+    public Race interruptLosers() {
+      interruptLosers = true;
+      return this;
+    }
+  }
+
+  class Quorum implements PromiseTask {
+
+    @NonNull
+    final Single<?>[] tasks;
+    final int required;
+    boolean interruptRemaining;
+
+    @SuppressWarnings({"ConstantConditions", "ThrowableInstanceNeverThrown"})
+    Quorum(int required, @NonNull Object[] taskArray) {
+      if (taskArray == null || taskArray.length == 0) {
+        throw new IllegalArgumentException("task is null");
+      }
+      if (required <= 0 || required > taskArray.length) {
+        throw new IllegalArgumentException("required must be in 1.." + taskArray.length + ". actual:" + required);
+      }
+      tasks = new Single<?>[taskArray.length];
+      for (int i = 0; i < taskArray.length; i++) {
+        if (taskArray[i] == null) throw new IllegalArgumentException("task is null");
+        tasks[i] = new Single<>(taskArray[i]);
       }
+      this.required = required;
+    }
+
+    /**
+     * The tasks still remaining when the quorum settles are always cancelled. With this, the ones already running are also interrupted.
+     */
+    @NonNull
+    public Quorum interruptRemaining() {
+      interruptRemaining = true;
+      return this;
     }
   }
 }
@@ -0,0 +1,52 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Settles a Promise from outside, e.g. from a listener of a callback based API,
+ * without a worker thread waiting for the result. See {@link Promise#resolver(java.util.concurrent.ExecutorService)}.
+ * <p>
+ * Only the first call of {@link #resolve(Object)} or {@link #reject(Object)} settles the Promise.
+ */
+public abstract class Resolver<F, R> {
+
+  Resolver() {
+  }
+
+  @NonNull
+  public abstract Promise<F, R> promise();
+
+  /**
+   * @return false if the Promise has already been settled.
+   */
+  public abstract boolean resolve(F value);
+
+  /**
+   * @return false if the Promise has already been settled.
+   */
+  public abstract boolean reject(R reason);
+}
@@ -26,21 +26,48 @@ package com.github.sho5nn.promise;
 
 import android.support.annotation.NonNull;
 
+import java.util.List;
+
 abstract class TaskExecutor<F, R, T extends PromiseTask> {
 
+  /**
+   * Starts the task for the promise. A plain single task is started without allocating an executor object.
+   */
+  @SuppressWarnings("unchecked")
+  static <F, R, T extends PromiseTask> void execute(@NonNull Promise<F, R> promise, @NonNull T task) {
+    if (task.getClass() == PromiseTask.Single.class) {
+      TaskExecutorSingle.execute((Promise<F, Throwable>) promise, (PromiseTask.Single<F>) task);
+    } else {
+      create(promise, task).execute();
+    }
+  }
+
   @SuppressWarnings("unchecked")
   @NonNull
-  static <F, R, T extends PromiseTask> TaskExecutor create(@NonNull Promise<F, R> promise, @NonNull T task) {
-    if (task instanceof PromiseTask.Single) {
-      return new TaskExecutorSingle<>((Promise<F, Throwable>) promise, (PromiseTask.Single) task);
+  static <F, R, T extends PromiseTask> TaskExecutor<?, ?, ?> create(@NonNull Promise<F, R> promise, @NonNull T task) {
+    if (task instanceof PromiseTask.Hedged) {
+      return new TaskExecutorHedged<>((Promise<F, Throwable>) promise, (PromiseTask.Hedged<F>) task);
+    } else if (task instanceof PromiseTask.Map) {
+      return new TaskExecutorMap<>((Promise<List<Object>, Throwable>) promise, (PromiseTask.Map<Object, Object>) task);
+    } else if (task instanceof PromiseTask.Single) {
+      return new TaskExecutorSingle<>((Promise<F, Throwable>) promise, (PromiseTask.Single<F>) task);
+    } else if (task instanceof PromiseTask.All && ((PromiseTask.All) task).source != null) {
+      return new TaskExecutorAllBounded((Promise<Object[], Throwable[]>) promise, (PromiseTask.All) task);
     } else if (task instanceof PromiseTask.All) {
       return new TaskExecutorAll((Promise<Object[], Throwable[]>) promise, (PromiseTask.All) task);
+    } else if (task instanceof PromiseTask.AllPrimitive) {
+      return new TaskExecutorAllPrimitive<>((Promise<Object, Throwable[]>) promise, (PromiseTask.AllPrimitive<Object>) task);
+    } else if (task instanceof PromiseTask.Zip) {
+      return new TaskExecutorZip((Promise<Tuple, Throwable>) promise, (PromiseTask.Zip<Tuple>) task);
     } else if (task instanceof PromiseTask.Race) {
       return new TaskExecutorRace((Promise<Object, Throwable>) promise, (PromiseTask.Race) task);
+    } else if (task instanceof PromiseTask.Quorum) {
+      return new TaskExecutorQuorum((Promise<Object[], Throwable[]>) promise, (PromiseTask.Quorum) task);
     } else {
       throw new IllegalArgumentException("Not supported PromiseTask. actual:" + task);
     }
   }
+
   @NonNull
   Promise<F, R> promise;
   @NonNull
@@ -26,15 +26,23 @@ package com.github.sho5nn.promise;
 
 import android.support.annotation.NonNull;
 
-import java.util.LinkedList;
-import java.util.concurrent.CountDownLatch;
-
-class TaskExecutorAll extends TaskExecutor<Object[], Throwable[], PromiseTask.All> {
-
-  @NonNull
-  private LinkedList<Deferred<Object, Throwable>> deferredList = new LinkedList<>();
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+class TaskExecutorAll extends TaskExecutor<Object[], Throwable[], PromiseTask.All>
+  implements IndexedFutureTask.Listener {
+
+  // Written by the children before they count down, read by the last one.
+  private Object[] resolvedValues;
+  private Throwable[] rejectedValues;
+  private boolean hasRejected;
+  private FanInCounter counter;
   @NonNull
-  private CountDownLatch counter = new CountDownLatch(0);
+  private final AtomicBoolean settled = new AtomicBoolean();
+  // A retry replaces its child. The volatile write pairs with the read of settled in retry(), so a
+  // fail-fast either sees the new child or the retry sees settled, and the new child is always cancelled.
+  private AtomicReferenceArray<IndexedFutureTask> children;
 
   TaskExecutorAll(@NonNull Promise<Object[], Throwable[]> promise,
                   @NonNull PromiseTask.All task) {
@@ -43,70 +51,81 @@ class TaskExecutorAll extends TaskExecutor<Object[], Throwable[], PromiseTask.Al
 
   @Override
   public void execute() {
-    if (promise.isFulfilled()) {
-      promise.resolve(promise.resolvedValue());
-      return;
-    }
+    if (task.tasks.length == 0) throw new IllegalArgumentException("task is null");
 
-    if (promise.isRejected()) {
-      promise.reject(promise.rejectedValue());
-      return;
-    }
+    if (!promise.execute()) return;
 
-    if (promise.isExecuting()) return;
+    int size = task.tasks.length;
+    resolvedValues = new Object[size];
+    rejectedValues = new Throwable[size];
+    counter = FanInCounter.create(size);
 
-    if (task.taskList.isEmpty()) throw new IllegalArgumentException("task is null");
-
-    for (PromiseTask.Single single : task.taskList) {
-      deferredList.add(new DeferredTrigger<Object, Throwable>(promise.executor(), single));
+    children = new AtomicReferenceArray<>(size);
+    for (int i = 0; i < size; i++) {
+      children.set(i, new IndexedFutureTask(this, i, task.tasks[i]));
     }
 
-    counter = new CountDownLatch(deferredList.size());
-
-    promise.execute();
-    for (Deferred<Object, Throwable> task : deferredList) {
-      task.promise().done(new FulfillCallbackDone<Object>() {
-        @Override
-        public void onFulfilled(@NonNull Object value) {
-          done();
-        }
-      }, new RejectCallbackDone<Throwable>() {
-        @Override
-        public void onRejected(@NonNull Throwable reason) {
-          done();
-        }
-      });
+    ExecutorService executor = promise.executor();
+    for (int i = 0; i < size; i++) {
+      if (settled.get()) break; // failed fast, the rest have been cancelled already
+      ForkJoinSupport.execute(executor, children.get(i));
     }
   }
 
-  private synchronized void done() {
-    if (!promise.isExecuting()) return;
+  @Override
+  public void onFulfilled(int index, Object value) {
+    promise.notifyFulfilled(index, value);
+    resolvedValues[index] = value;
+    done(index);
+  }
+
+  @Override
+  public void onRejected(int index, Throwable reason) {
+    if (retry(index)) return;
+    promise.notifyRejected(index, reason);
+    if (task.failFast) {
+      failFast(index, reason);
+      return;
+    }
+    rejectedValues[index] = reason;
+    hasRejected = true;
+    done(index);
+  }
 
-    counter.countDown();
+  private boolean retry(int index) {
+    IndexedFutureTask failed = children.get(index);
+    if (failed.attempt >= task.retries || settled.get()) return false;
 
-    if (counter.getCount() > 0) return;
+    IndexedFutureTask retry = failed.retry();
+    children.set(index, retry);
+    ForkJoinSupport.execute(promise.executor(), retry);
+    // failed fast while this was being replaced, the new child may have been missed
+    if (settled.get()) retry.cancel(task.mayInterruptIfRunning);
+    return true;
+  }
 
-    boolean isAllFulfilled = true;
-    for (Deferred<Object, Throwable> deferred : deferredList) {
-      if (Promise.State.FULFILLED != deferred.promise().state()) {
-        isAllFulfilled = false;
-        break;
-      }
+  /**
+   * Rejects with only this reason, and cancels the children that have not settled yet.
+   */
+  private void failFast(int index, Throwable reason) {
+    if (!settled.compareAndSet(false, true)) return;
+    IndexedFutureTask[] others = new IndexedFutureTask[children.length()];
+    for (int i = 0; i < others.length; i++) {
+      others[i] = children.get(i);
     }
+    IndexedFutureTask.cancelOthers(promise.executor(), others, index, task.mayInterruptIfRunning);
+    rejectedValues[index] = reason;
+    promise.reject(rejectedValues);
+  }
 
-    if (isAllFulfilled) {
-      LinkedList<Object> resolvedValueList = new LinkedList<>();
-      for (Deferred<Object, Throwable> deferred : deferredList) {
-        resolvedValueList.offer(deferred.promise().resolvedValue());
-      }
-      promise.resolve(resolvedValueList.toArray());
+  private void done(int index) {
+    if (!counter.countDown(index)) return;
+    if (!settled.compareAndSet(false, true)) return;
 
+    if (hasRejected) {
+      promise.reject(rejectedValues);
     } else {
-      LinkedList<Throwable> rejectedValueList = new LinkedList<>();
-      for (Deferred<Object, Throwable> deferred : deferredList) {
-        rejectedValueList.offer(deferred.promise().rejectedValue());
-      }
-      promise.reject(rejectedValueList.toArray(new Throwable[rejectedValueList.size()]));
+      promise.resolve(resolvedValues);
     }
   }
 }
@@ -0,0 +1,208 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a {@link PromiseTask.All} with a source, keeping at most {@code parallelism} children in flight.
+ * A child that settles frees its slot and the next task is taken from the source.
+ * An exception thrown by the source (or a task that is neither Runnable nor Callable) ends the source
+ * and is recorded as the rejection of the next index.
+ */
+class TaskExecutorAllBounded extends TaskExecutor<Object[], Throwable[], PromiseTask.All>
+  implements IndexedFutureTask.Listener {
+
+  // Guarded by this.
+  private final ArrayList<Object> resolvedValues = new ArrayList<>();
+  private final ArrayList<Throwable> rejectedValues = new ArrayList<>();
+  private boolean hasRejected;
+  private boolean exhausted;
+  private boolean settled;
+  // Taken from the task on the first pull, so every run walks the source from its start.
+  private Iterator<?> source;
+  // The children in flight by index. Never more than parallelism, and only as many as were actually taken,
+  // so a huge parallelism costs nothing up front and a child is found without scanning.
+  @NonNull
+  private final HashMap<Integer, IndexedFutureTask> running = new HashMap<>();
+
+  // Only one thread pulls from the source at a time; the others leave their request behind.
+  @NonNull
+  private final AtomicInteger pulling = new AtomicInteger();
+
+  TaskExecutorAllBounded(@NonNull Promise<Object[], Throwable[]> promise,
+                         @NonNull PromiseTask.All task) {
+    super(promise, task);
+  }
+
+  @Override
+  public void execute() {
+    if (!promise.execute()) return;
+    pull();
+  }
+
+  @Override
+  public void onFulfilled(int index, Object value) {
+    promise.notifyFulfilled(index, value);
+    synchronized (this) {
+      if (settled) return;
+      resolvedValues.set(index, value);
+      release(index);
+    }
+    pull();
+  }
+
+  @Override
+  public void onRejected(int index, Throwable reason) {
+    if (retry(index)) return;
+    promise.notifyRejected(index, reason);
+    IndexedFutureTask[] others;
+    int size;
+    synchronized (this) {
+      if (settled) return;
+      rejectedValues.set(index, reason);
+      hasRejected = true;
+      release(index);
+      size = rejectedValues.size();
+      if (!task.failFast) {
+        others = null;
+      } else {
+        settled = true;
+        others = running.values().toArray(new IndexedFutureTask[running.size()]);
+      }
+    }
+
+    if (others == null) {
+      pull();
+      return;
+    }
+    // fail-fast: only this reason is reported, and the children in flight are cancelled
+    IndexedFutureTask.cancelOthers(promise.executor(), others, index, task.mayInterruptIfRunning);
+    Throwable[] reasons = new Throwable[size];
+    reasons[index] = reason;
+    promise.reject(reasons);
+  }
+
+  private boolean retry(int index) {
+    IndexedFutureTask retry = null;
+    synchronized (this) {
+      if (settled) return false;
+      IndexedFutureTask child = running.get(index);
+      if (child != null) {
+        if (child.attempt >= task.retries) return false;
+        retry = child.retry();
+        running.put(index, retry); // keeps the slot
+      }
+    }
+    if (retry == null) return false;
+    ForkJoinSupport.execute(promise.executor(), retry);
+    boolean missed;
+    synchronized (this) {
+      missed = settled; // failed fast before this was running
+    }
+    if (missed) retry.cancel(task.mayInterruptIfRunning);
+    return true;
+  }
+
+  private void release(int index) {
+    running.remove(index);
+  }
+
+  private void pull() {
+    if (pulling.getAndIncrement() != 0) return;
+
+    int missed = 1;
+    do {
+      for (;;) {
+        IndexedFutureTask child = null;
+        RuntimeException failure = null;
+        int index;
+        synchronized (this) {
+          if (settled || running.size() == task.parallelism) break;
+
+          if (!exhausted) {
+            try {
+              if (source == null) source = task.source.iterator();
+              if (source.hasNext()) {
+                child = new IndexedFutureTask(this, resolvedValues.size(), new PromiseTask.Single<>(source.next()));
+              } else {
+                exhausted = true;
+              }
+            } catch (RuntimeException e) {
+              exhausted = true;
+              failure = e;
+            }
+          }
+
+          if (child == null && failure == null) {
+            if (!running.isEmpty()) break;
+            settled = true; // the source is exhausted and no child is in flight
+            index = -1;
+          } else {
+            index = resolvedValues.size();
+            resolvedValues.add(null);
+            rejectedValues.add(null);
+            if (child != null) occupy(child);
+          }
+        }
+
+        if (child != null) {
+          ForkJoinSupport.execute(promise.executor(), child);
+        } else if (failure != null) {
+          onRejected(index, failure);
+        } else {
+          settle();
+          break;
+        }
+      }
+      missed = pulling.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private void occupy(@NonNull IndexedFutureTask child) {
+    running.put(child.index, child);
+  }
+
+  private void settle() {
+    boolean rejected;
+    Object[] values;
+    Throwable[] reasons;
+    synchronized (this) {
+      rejected = hasRejected;
+      values = rejected ? null : resolvedValues.toArray();
+      reasons = rejected ? rejectedValues.toArray(new Throwable[rejectedValues.size()]) : null;
+    }
+    if (rejected) {
+      promise.reject(reasons);
+    } else {
+      promise.resolve(values);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs a {@link PromiseTask.AllPrimitive}. The children store their results straight into the primitive
+ * array, instead of going through a FutureTask, which would box them.
+ */
+class TaskExecutorAllPrimitive<A> extends TaskExecutor<A, Throwable[], PromiseTask.AllPrimitive<A>> {
+
+  // Written by the children before they count down, read by the last one.
+  private A results;
+  private Throwable[] rejectedValues;
+  private boolean hasRejected;
+  private FanInCounter counter;
+
+  TaskExecutorAllPrimitive(@NonNull Promise<A, Throwable[]> promise,
+                           @NonNull PromiseTask.AllPrimitive<A> task) {
+    super(promise, task);
+  }
+
+  @Override
+  public void execute() {
+    if (task.tasks.length == 0) throw new IllegalArgumentException("task is null");
+
+    if (!promise.execute()) return;
+
+    int size = task.tasks.length;
+    results = task.newResults(size);
+    rejectedValues = new Throwable[size];
+    counter = FanInCounter.create(size);
+
+    ExecutorService executor = promise.executor();
+    for (int i = 0; i < size; i++) {
+      ForkJoinSupport.execute(executor, new Child(i));
+    }
+  }
+
+  private class Child implements Runnable {
+
+    private final int index;
+
+    Child(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public void run() {
+      try {
+        task.call(index, results);
+      } catch (Throwable e) {
+        // same as the ExecutionException of a FutureTask, as in Promise.all
+        rejectedValues[index] = new ExecutionException(e);
+        hasRejected = true;
+      }
+
+      if (!counter.countDown(index)) return;
+      if (hasRejected) {
+        promise.reject(rejectedValues);
+      } else {
+        promise.resolve(results);
+      }
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the task of a {@link PromiseTask.Hedged} as child 0, and a backup copy as child 1 when the
+ * delay of the policy passes first. The first child to fulfill wins; the latency from the start of
+ * the primary to the win is fed back to the policy.
+ */
+class TaskExecutorHedged<F> extends TaskExecutor<F, Throwable, PromiseTask.Hedged<F>>
+  implements IndexedFutureTask.Listener, Runnable {
+
+  // Guarded by this.
+  @NonNull
+  private final IndexedFutureTask[] children = new IndexedFutureTask[2];
+  // When the primary started. The latency of either copy is measured from here, as the caller sees it.
+  private long started;
+  private int running;
+  private boolean settled;
+  private Future<?> timer;
+
+  TaskExecutorHedged(@NonNull Promise<F, Throwable> promise,
+                     @NonNull PromiseTask.Hedged<F> task) {
+    super(promise, task);
+  }
+
+  @Override
+  public void execute() {
+    if (!promise.execute()) return;
+
+    IndexedFutureTask primary = new IndexedFutureTask(this, 0, task);
+    synchronized (this) {
+      children[0] = primary;
+      started = System.nanoTime();
+      running = 1;
+      timer = HedgePolicy.scheduler().schedule(this, task.policy.delayNanos(), TimeUnit.NANOSECONDS);
+    }
+    ForkJoinSupport.execute(promise.executor(), primary);
+  }
+
+  /**
+   * The delay has passed, starts the backup if the primary is still running.
+   */
+  @Override
+  public void run() {
+    IndexedFutureTask backup = new IndexedFutureTask(this, 1, task);
+    synchronized (this) {
+      if (settled || running == 0) return;
+      children[1] = backup;
+      running++;
+    }
+    ForkJoinSupport.execute(promise.executor(), backup);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void onFulfilled(int index, Object value) {
+    long latency;
+    synchronized (this) {
+      if (settled) return;
+      settled = true;
+      latency = System.nanoTime() - started;
+    }
+    task.policy.record(latency);
+    cancelOthers(index);
+    promise.resolve((F) value);
+  }
+
+  @Override
+  public void onRejected(int index, Throwable reason) {
+    synchronized (this) {
+      if (settled) return;
+      // the other copy may still fulfill
+      if (--running > 0) return;
+      settled = true;
+    }
+    cancelOthers(index);
+    promise.reject(reason);
+  }
+
+  private void cancelOthers(int index) {
+    Future<?> timer;
+    IndexedFutureTask[] others;
+    synchronized (this) {
+      timer = this.timer;
+      others = children[1] == null ? new IndexedFutureTask[]{children[0]} : children.clone();
+    }
+    timer.cancel(false);
+    ExecutorService executor = promise.executor();
+    IndexedFutureTask.cancelOthers(executor, others, index, true);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a {@link PromiseTask.Map} as a few worker tasks that claim chunks of the values until none are left.
+ * Each chunk is a share of the values still unclaimed (guided scheduling): large at first, to keep
+ * the claims rare, and small at the end, so that no worker is left with a large chunk while the others are idle.
+ */
+class TaskExecutorMap<T, U> extends TaskExecutor<List<U>, Throwable, PromiseTask.Map<T, U>> {
+
+  // Below this, a chunk costs more to claim and hand over than to map.
+  private static final int MIN_CHUNK = 64;
+
+  private int workers;
+  // Written by the workers before they count down, read by the last one.
+  private Object[] results;
+  @NonNull
+  private final AtomicInteger cursor = new AtomicInteger();
+  private AtomicInteger remaining;
+  @NonNull
+  private final AtomicBoolean settled = new AtomicBoolean();
+
+  TaskExecutorMap(@NonNull Promise<List<U>, Throwable> promise,
+                  @NonNull PromiseTask.Map<T, U> task) {
+    super(promise, task);
+  }
+
+  @Override
+  public void execute() {
+    int size = task.values.length;
+    workers = Math.min(task.parallelism, (size + MIN_CHUNK - 1) / MIN_CHUNK);
+    if (workers <= 1) {
+      TaskExecutorSingle.execute(promise, task);
+      return;
+    }
+
+    if (!promise.execute()) return;
+
+    results = new Object[size];
+    remaining = new AtomicInteger(workers);
+    ExecutorService executor = promise.executor();
+    for (int i = 0; i < workers; i++) {
+      ForkJoinSupport.execute(executor, new Worker());
+    }
+  }
+
+  /**
+   * @return the end of the claimed chunk, which starts at {@code start[0]}, or -1 if none is left.
+   */
+  private int claim(int[] start) {
+    int size = task.values.length;
+    for (;;) {
+      int from = cursor.get();
+      if (from >= size) return -1;
+      int to = Math.min(size, from + Math.max(MIN_CHUNK, (size - from) / (workers * 2)));
+      if (cursor.compareAndSet(from, to)) {
+        start[0] = from;
+        return to;
+      }
+    }
+  }
+
+  private class Worker implements Runnable {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void run() {
+      Object[] values = task.values;
+      MapCallback<? super T, ? extends U> callback = task.callback;
+      int[] start = new int[1];
+      try {
+        int to;
+        while ((to = claim(start)) >= 0) {
+          for (int i = start[0]; i < to; i++) {
+            results[i] = callback.map((T) values[i]);
+          }
+        }
+      } catch (Throwable e) {
+        cursor.set(values.length); // the other workers stop at their next claim
+        if (settled.compareAndSet(false, true)) {
+          promise.reject(new ExecutionException(e));
+        }
+      }
+
+      if (remaining.decrementAndGet() == 0 && settled.compareAndSet(false, true)) {
+        promise.resolve((List<U>) Arrays.asList(results));
+      }
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TaskExecutorQuorum extends TaskExecutor<Object[], Throwable[], PromiseTask.Quorum>
+  implements IndexedFutureTask.Listener {
+
+  // Written by the children before they count up, read by the one that settles.
+  private Object[] resolvedValues;
+  private Throwable[] rejectedValues;
+  @NonNull
+  private final AtomicInteger fulfilled = new AtomicInteger();
+  @NonNull
+  private final AtomicInteger rejected = new AtomicInteger();
+  @NonNull
+  private final AtomicBoolean settled = new AtomicBoolean();
+  private IndexedFutureTask[] children;
+
+  TaskExecutorQuorum(@NonNull Promise<Object[], Throwable[]> promise,
+                     @NonNull PromiseTask.Quorum task) {
+    super(promise, task);
+  }
+
+  @Override
+  public void execute() {
+    if (task.tasks.length == 0) throw new IllegalArgumentException("task is null");
+
+    if (!promise.execute()) return;
+
+    int size = task.tasks.length;
+    resolvedValues = new Object[size];
+    rejectedValues = new Throwable[size];
+
+    children = new IndexedFutureTask[size];
+    for (int i = 0; i < size; i++) {
+      children[i] = new IndexedFutureTask(this, i, task.tasks[i]);
+    }
+
+    ExecutorService executor = promise.executor();
+    for (IndexedFutureTask child : children) {
+      if (settled.get()) break; // the rest have been cancelled already
+      ForkJoinSupport.execute(executor, child);
+    }
+  }
+
+  @Override
+  public void onFulfilled(int index, Object value) {
+    resolvedValues[index] = value;
+    if (fulfilled.incrementAndGet() != task.required) return;
+    if (!settle(index)) return;
+
+    // copy, the children settling at the same time may still write to the array
+    promise.resolve(resolvedValues.clone());
+  }
+
+  @Override
+  public void onRejected(int index, Throwable reason) {
+    rejectedValues[index] = reason;
+    // the quorum is out of reach once more than size - required have rejected
+    if (rejected.incrementAndGet() != task.tasks.length - task.required + 1) return;
+    if (!settle(index)) return;
+
+    promise.reject(rejectedValues.clone());
+  }
+
+  private boolean settle(int index) {
+    if (!settled.compareAndSet(false, true)) return false;
+    IndexedFutureTask.cancelOthers(promise.executor(), children, index, task.interruptRemaining);
+    return true;
+  }
+}
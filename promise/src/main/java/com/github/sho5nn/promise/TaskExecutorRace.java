@@ -27,13 +27,15 @@ package com.github.sho5nn.promise;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
-import java.util.LinkedList;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-class TaskExecutorRace extends TaskExecutor<Object, Throwable, PromiseTask.Race> {
+class TaskExecutorRace extends TaskExecutor<Object, Throwable, PromiseTask.Race>
+  implements IndexedFutureTask.Listener {
 
   @NonNull
-  private CountDownLatch counter = new CountDownLatch(0);
+  private final AtomicBoolean settled = new AtomicBoolean();
+  private IndexedFutureTask[] children;
 
   TaskExecutorRace(@NonNull Promise<Object, Throwable> promise,
                    @NonNull PromiseTask.Race task) {
@@ -42,61 +44,40 @@ class TaskExecutorRace extends TaskExecutor<Object, Throwable, PromiseTask.Race>
 
   @Override
   public void execute() {
-    if (promise.isFulfilled()) {
-      promise.resolve(promise.resolvedValue());
-      return;
-    }
-
-    if (promise.isRejected()) {
-      promise.reject(promise.rejectedValue());
-      return;
-    }
-
-    if (promise.isExecuting()) return;
+    if (task.tasks.length == 0) throw new IllegalArgumentException("task is null");
 
-    if (task.taskList.isEmpty()) throw new IllegalArgumentException("task is null");
+    if (!promise.execute()) return;
 
-    LinkedList<Deferred<Object, Throwable>> deferredList = new LinkedList<>();
-
-    for (PromiseTask.Single single : task.taskList) {
-      deferredList.add(new DeferredTrigger<Object, Throwable>(promise.executor(), single));
+    children = new IndexedFutureTask[task.tasks.length];
+    for (int i = 0; i < children.length; i++) {
+      children[i] = new IndexedFutureTask(this, i, task.tasks[i]);
     }
 
-    counter = new CountDownLatch(1);
-
-    promise.execute();
-    for (Deferred<Object, Throwable> task : deferredList) {
-      task.promise().done(new FulfillCallbackDone<Object>() {
-        @Override
-        public void onFulfilled(@NonNull Object value) {
-          doneFulfilled(value);
-        }
-      }, new RejectCallbackDone<Throwable>() {
-        @Override
-        public void onRejected(@NonNull Throwable reason) {
-          doneRejected(reason);
-        }
-      });
+    ExecutorService executor = promise.executor();
+    for (IndexedFutureTask child : children) {
+      if (settled.get()) break; // the rest have been cancelled already
+      ForkJoinSupport.execute(executor, child);
     }
   }
 
-  private synchronized void doneFulfilled(@Nullable Object value) {
-    if (!promise.isExecuting()) return;
-
-    counter.countDown();
-
-    if (counter.getCount() > 0) return;
-
+  @Override
+  public void onFulfilled(int index, @Nullable Object value) {
+    if (!win(index)) return;
     promise.resolve(value);
   }
 
-  private synchronized void doneRejected(@Nullable Throwable reason) {
-    if (!promise.isExecuting()) return;
-
-    counter.countDown();
-
-    if (counter.getCount() > 0) return;
-
+  @Override
+  public void onRejected(int index, @Nullable Throwable reason) {
+    if (!win(index)) return;
     promise.reject(reason);
   }
+
+  /**
+   * The first child to settle wins. The losers are cancelled before the promise dispatches its callbacks.
+   */
+  private boolean win(int index) {
+    if (!settled.compareAndSet(false, true)) return false;
+    IndexedFutureTask.cancelOthers(promise.executor(), children, index, task.interruptLosers);
+    return true;
+  }
 }
@@ -37,27 +37,27 @@ class TaskExecutorSingle<F> extends TaskExecutor<F, Throwable, PromiseTask.Singl
 
   @Override
   public void execute() {
-    if (promise.isFulfilled()) {
-      promise.resolve(promise.resolvedValue());
-      return;
-    }
-
-    if (promise.isRejected()) {
-      promise.reject(promise.rejectedValue());
-      return;
-    }
+    execute(promise, task);
+  }
 
-    if (promise.isExecuting()) return;
+  static <F> void execute(@NonNull Promise<F, Throwable> promise, @NonNull PromiseTask.Single<F> task) {
+    if (!promise.execute()) return;
 
+    DeferredFutureTask<F> futureTask;
     if (task.task instanceof Callable) {
-      promise.execute();
-      //noinspection unchecked
-      promise.executor().submit(new DeferredFutureTask<>(promise, (Callable) task.task));
+      @SuppressWarnings("unchecked")
+      Callable<F> callable = (Callable<F>) task.task;
+      futureTask = new DeferredFutureTask<>(promise, callable);
     } else if (task.task instanceof Runnable) {
-      promise.execute();
-      promise.executor().submit(new DeferredFutureTask<>(promise, (Runnable) task.task));
+      futureTask = new DeferredFutureTask<>(promise, (Runnable) task.task);
     } else {
       throw new IllegalStateException("Promise only allows Runnable or Callable. actual:" + task.task);
     }
+
+    // a then() stage started while the previous stage settles continues on the same worker
+    if (promise instanceof DeferredLater && promise.hasMode(Promise.Mode.INLINE) && Trampoline.offer(futureTask)) return;
+
+    // execute() rather than submit(), which would wrap the FutureTask in another one
+    ForkJoinSupport.execute(promise.executor(), futureTask);
   }
 }
@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TaskExecutorZip extends TaskExecutor<Tuple, Throwable, PromiseTask.Zip<Tuple>>
+  implements IndexedFutureTask.Listener {
+
+  // Written by the children before they count down, read by the last one.
+  private Tuple tuple;
+  private AtomicInteger remaining;
+  @NonNull
+  private final AtomicBoolean settled = new AtomicBoolean();
+  private IndexedFutureTask[] children;
+
+  TaskExecutorZip(@NonNull Promise<Tuple, Throwable> promise,
+                  @NonNull PromiseTask.Zip<Tuple> task) {
+    super(promise, task);
+  }
+
+  @Override
+  public void execute() {
+    if (!promise.execute()) return;
+
+    int size = task.tasks.length;
+    tuple = Tuple.create(size);
+    remaining = new AtomicInteger(size);
+
+    children = new IndexedFutureTask[size];
+    for (int i = 0; i < size; i++) {
+      children[i] = new IndexedFutureTask(this, i, task.tasks[i]);
+    }
+
+    ExecutorService executor = promise.executor();
+    for (IndexedFutureTask child : children) {
+      if (settled.get()) break; // rejected already, the rest have been cancelled
+      ForkJoinSupport.execute(executor, child);
+    }
+  }
+
+  @Override
+  public void onFulfilled(int index, Object value) {
+    tuple.set(index, value);
+    if (remaining.decrementAndGet() != 0) return;
+    if (!settled.compareAndSet(false, true)) return;
+
+    promise.resolve(tuple);
+  }
+
+  @Override
+  public void onRejected(int index, Throwable reason) {
+    if (!settled.compareAndSet(false, true)) return;
+    IndexedFutureTask.cancelOthers(promise.executor(), children, index, false);
+    promise.reject(reason);
+  }
+}
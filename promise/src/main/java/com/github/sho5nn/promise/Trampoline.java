@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs the stages of a {@link Promise.Mode#INLINE} chain one after another on the worker that
+ * completed the previous stage. A continuation started while that stage settles is queued
+ * instead of being called recursively, so the stack stays flat however long the chain is.
+ * <p>
+ * Only continuations are queued: tasks started while a stage is still being called (e.g. a nested
+ * Promise.when() the stage waits for) are submitted as usual, or they could never run.
+ */
+final class Trampoline {
+
+  private static final ThreadLocal<Frame> FRAME = new ThreadLocal<>();
+
+  private static final class Frame {
+
+    @NonNull
+    final ArrayDeque<DeferredFutureTask<?>> queue = new ArrayDeque<>();
+    @NonNull
+    final ExecutorService executor;
+    // true while a stage of this trampoline resolves or rejects its promise
+    boolean settling;
+
+    Frame(@NonNull ExecutorService executor) {
+      this.executor = executor;
+    }
+  }
+
+  private Trampoline() {
+  }
+
+  /**
+   * @return true if a stage on this thread is settling, so a task started now is one of its continuations.
+   */
+  static boolean isSettling() {
+    Frame frame = FRAME.get();
+    return frame != null && frame.settling;
+  }
+
+  /**
+   * Marks whether the stage running on this thread is settling its promise.
+   *
+   * @return the previous value, to be restored afterwards
+   */
+  static boolean setSettling(boolean settling) {
+    Frame frame = FRAME.get();
+    if (frame == null) return false;
+    boolean previous = frame.settling;
+    frame.settling = settling;
+    return previous;
+  }
+
+  /**
+   * @return false if the task is not a continuation of a stage settling on this trampoline,
+   * i.e. the task has to be submitted.
+   */
+  static boolean offer(@NonNull DeferredFutureTask<?> task) {
+    Frame frame = FRAME.get();
+    if (frame == null || !frame.settling || frame.executor != task.executor()) return false;
+    frame.queue.offer(task);
+    return true;
+  }
+
+  static void run(@NonNull DeferredFutureTask<?> task) {
+    Frame previous = FRAME.get();
+    Frame frame = new Frame(task.executor());
+    FRAME.set(frame);
+    try {
+      DeferredFutureTask<?> next = task;
+      do {
+        next.runStage();
+      } while ((next = frame.queue.poll()) != null);
+    } finally {
+      if (previous == null) {
+        FRAME.remove();
+      } else {
+        FRAME.set(previous);
+      }
+      resubmit(frame.queue.poll(), frame.queue);
+    }
+  }
+  // only reached when a task has thrown an Error; hand the rest back to their executors
+  private static void resubmit(@Nullable DeferredFutureTask<?> task, @NonNull ArrayDeque<DeferredFutureTask<?>> queue) {
+    for (; task != null; task = queue.poll()) {
+      task.executor().execute(task);
+    }
+  }
+}
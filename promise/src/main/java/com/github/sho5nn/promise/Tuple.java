@@ -0,0 +1,296 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017 sho5nn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.github.sho5nn.promise;
+
+import android.support.annotation.NonNull;
+
+/**
+ * The typed result of {@link Promise#zip}. {@code Of3} is also an {@code Of2} of its first two values, and so on.
+ * The values are written into fields as the tasks fulfill, and are read once the promise has fulfilled.
+ */
+public abstract class Tuple {
+
+  private final int size;
+
+  Tuple(int size) {
+    this.size = size;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @NonNull
+  static Tuple create(int size) {
+    switch (size) {
+      case 2:
+        return new Of2<>(2);
+      case 3:
+        return new Of3<>(3);
+      case 4:
+        return new Of4<>(4);
+      case 5:
+        return new Of5<>(5);
+      case 6:
+        return new Of6<>(6);
+      case 7:
+        return new Of7<>(7);
+      case 8:
+        return new Of8<>(8);
+      default:
+        throw new IllegalArgumentException("zip takes 2 to 8 tasks. actual:" + size);
+    }
+  }
+
+  /**
+   * Each {@code OfN} writes the value it declares and passes lower indices to its super class.
+   */
+  abstract void set(int index, Object value);
+
+  abstract Object get(int index);
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("(");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) builder.append(", ");
+      builder.append(get(i));
+    }
+    return builder.append(')').toString();
+  }
+
+  public static class Of2<A, B> extends Tuple {
+
+    private A v1;
+    private B v2;
+
+    Of2(int size) {
+      super(size);
+    }
+
+    public A first() {
+      return v1;
+    }
+
+    public B second() {
+      return v2;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void set(int index, Object value) {
+      switch (index) {
+        case 0:
+          v1 = (A) value;
+          break;
+        case 1:
+          v2 = (B) value;
+          break;
+        default:
+          throw new IndexOutOfBoundsException("index:" + index);
+      }
+    }
+
+    @Override
+    Object get(int index) {
+      switch (index) {
+        case 0:
+          return v1;
+        case 1:
+          return v2;
+        default:
+          throw new IndexOutOfBoundsException("index:" + index);
+      }
+    }
+  }
+
+  public static class Of3<A, B, C> extends Of2<A, B> {
+
+    private C v3;
+
+    Of3(int size) {
+      super(size);
+    }
+
+    public C third() {
+      return v3;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void set(int index, Object value) {
+      if (index == 2) {
+        v3 = (C) value;
+      } else {
+        super.set(index, value);
+      }
+    }
+
+    @Override
+    Object get(int index) {
+      return index == 2 ? v3 : super.get(index);
+    }
+  }
+
+  public static class Of4<A, B, C, D> extends Of3<A, B, C> {
+
+    private D v4;
+
+    Of4(int size) {
+      super(size);
+    }
+
+    public D fourth() {
+      return v4;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void set(int index, Object value) {
+      if (index == 3) {
+        v4 = (D) value;
+      } else {
+        super.set(index, value);
+      }
+    }
+
+    @Override
+    Object get(int index) {
+      return index == 3 ? v4 : super.get(index);
+    }
+  }
+
+  public static class Of5<A, B, C, D, E> extends Of4<A, B, C, D> {
+
+    private E v5;
+
+    Of5(int size) {
+      super(size);
+    }
+
+    public E fifth() {
+      return v5;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void set(int index, Object value) {
+      if (index == 4) {
+        v5 = (E) value;
+      } else {
+        super.set(index, value);
+      }
+    }
+
+    @Override
+    Object get(int index) {
+      return index == 4 ? v5 : super.get(index);
+    }
+  }
+
+  public static class Of6<A, B, C, D, E, F> extends Of5<A, B, C, D, E> {
+
+    private F v6;
+
+    Of6(int size) {
+      super(size);
+    }
+
+    public F sixth() {
+      return v6;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void set(int index, Object value) {
+      if (index == 5) {
+        v6 = (F) value;
+      } else {
+        super.set(index, value);
+      }
+    }
+
+    @Override
+    Object get(int index) {
+      return index == 5 ? v6 : super.get(index);
+    }
+  }
+
+  public static class Of7<A, B, C, D, E, F, G> extends Of6<A, B, C, D, E, F> {
+
+    private G v7;
+
+    Of7(int size) {
+      super(size);
+    }
+
+    public G seventh() {
+      return v7;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void set(int index, Object value) {
+      if (index == 6) {
+        v7 = (G) value;
+      } else {
+        super.set(index, value);
+      }
+    }
+
+    @Override
+    Object get(int index) {
+      return index == 6 ? v7 : super.get(index);
+    }
+  }
+
+  public static class Of8<A, B, C, D, E, F, G, H> extends Of7<A, B, C, D, E, F, G> {
+
+    private H v8;
+
+    Of8(int size) {
+      super(size);
+    }
+
+    public H eighth() {
+      return v8;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void set(int index, Object value) {
+      if (index == 7) {
+        v8 = (H) value;
+      } else {
+        super.set(index, value);
+      }
+    }
+
+    @Override
+    Object get(int index) {
+      return index == 7 ? v8 : super.get(index);
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.github.sho5nn.promise;
+
+import com.github.sho5nn.promise.fortestutils.CallableTask;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.Assert.*;
+
+public class CallbackDispatcherTest extends BaseTest {
+
+  private static ExecutorService namedThread(final String name) {
+    return Executors.newSingleThreadExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        return new Thread(r, name);
+      }
+    });
+  }
+
+  @Test
+  public void direct_calls_back_on_settling_thread() throws Exception {
+    countSet(1);
+    final Thread caller = Thread.currentThread();
+    Promise.when(executor, Promise.single(CallableTask.increment(1)))
+      .done(new FulfillCallbackDone<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertNotSame(caller, Thread.currentThread());
+          countDown();
+        }
+      }).at(CallbackDispatcher.Direct.INSTANCE);
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void executor_adapter_calls_back_on_executor() throws Exception {
+    ExecutorService callbackThread = namedThread("callback-thread");
+    countSet(1);
+    Promise.when(executor, Promise.single(CallableTask.sleep(50, 1)))
+      .done(new FulfillCallbackDone<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertEquals("callback-thread", Thread.currentThread().getName());
+          countDown();
+        }
+      }).at(new CallbackDispatcher.ExecutorAdapter(callbackThread));
+    awaitToCheckCount();
+    callbackThread.shutdown();
+  }
+
+  @Test
+  public void serial_calls_back_in_order() throws Exception {
+    CallbackDispatcher serial = new CallbackDispatcher.Serial(executor);
+    final List<Integer> order = new ArrayList<>();
+    countSet(100);
+    for (int i = 0; i < 100; i++) {
+      final int index = i;
+      serial.dispatch(new Runnable() {
+        @Override
+        public void run() {
+          order.add(index);
+          countDown();
+        }
+      });
+    }
+    awaitToCheckCount();
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, (int) order.get(i));
+    }
+  }
+}
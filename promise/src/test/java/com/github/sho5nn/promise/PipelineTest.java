@@ -0,0 +1,169 @@
+package com.github.sho5nn.promise;
+
+import com.github.sho5nn.promise.fortestutils.ForUnitTestException;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.Assert.*;
+
+public class PipelineTest extends BaseTest {
+
+  private static final Pipeline<Integer, String> PIPELINE = Pipeline.<Integer>begin()
+    .then(new MapCallback<Integer, Integer>() {
+      @Override
+      public Integer map(Integer value) throws Exception {
+        return value + 1;
+      }
+    })
+    .then(new FulfillCallbackThenApply<Integer, Integer>() {
+      @Override
+      public Integer onFulfilled(Integer value) {
+        return value * 2;
+      }
+    })
+    .then(new MapCallback<Integer, String>() {
+      @Override
+      public String map(Integer value) throws Exception {
+        return "v" + value;
+      }
+    });
+
+  @Test
+  public void run_many_inputs() throws Exception {
+    int runs = 1000;
+    countSet(runs);
+    for (int i = 0; i < runs; i++) {
+      final int input = i;
+      PIPELINE.run(executor, input)
+        .done(new FulfillCallbackDone<String>() {
+          @Override
+          public void onFulfilled(String value) {
+            assertEquals("v" + (input + 1) * 2, value);
+            countDown();
+          }
+        });
+    }
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void begin_fulfills_with_input() throws Exception {
+    assertEquals("same", Pipeline.<String>begin().run(executor, "same").await());
+  }
+
+  @Test
+  public void map_stages_continue_on_same_worker() throws Exception {
+    String names = Pipeline.<String>begin()
+      .then(new MapCallback<String, String>() {
+        @Override
+        public String map(String value) throws Exception {
+          return Thread.currentThread().getName();
+        }
+      })
+      .then(new MapCallback<String, String>() {
+        @Override
+        public String map(String value) throws Exception {
+          return value + "," + Thread.currentThread().getName();
+        }
+      })
+      .run(executor, "")
+      .await();
+    String[] split = names.split(",");
+    assertEquals(split[0], split[1]);
+  }
+
+  @Test
+  public void at_moves_stage_to_dispatcher() throws Exception {
+    ExecutorService named = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        return new Thread(r, "dispatcher");
+      }
+    });
+    try {
+      String name = Pipeline.<String>begin()
+        .then(new FulfillCallbackThenApply<String, String>() {
+          @Override
+          public String onFulfilled(String value) {
+            return Thread.currentThread().getName();
+          }
+        })
+        .at(new CallbackDispatcher.ExecutorAdapter(named))
+        .run(executor, "")
+        .await();
+      assertEquals("dispatcher", name);
+    } finally {
+      named.shutdown();
+    }
+  }
+
+  @Test
+  public void map_exception_rejects() throws Exception {
+    try {
+      Pipeline.<String>begin()
+        .then(new MapCallback<String, String>() {
+          @Override
+          public String map(String value) throws Exception {
+            throw new ForUnitTestException();
+          }
+        })
+        .then(new FulfillCallbackThenAccept<String>() {
+          @Override
+          public void onFulfilled(String value) {
+            fail();
+          }
+        })
+        .run(executor, "")
+        .await();
+      fail();
+    } catch (RejectedException e) {
+      assertEquals(ForUnitTestException.class, e.getCause().getCause().getClass());
+    }
+  }
+
+  @Test
+  public void apply_exception_rejects() throws Exception {
+    try {
+      Pipeline.<String>begin()
+        .then(new FulfillCallbackThenApply<String, String>() {
+          @Override
+          public String onFulfilled(String value) {
+            throw new ForUnitTestException();
+          }
+        })
+        .run(executor, "")
+        .await();
+      fail();
+    } catch (RejectedException e) {
+      assertEquals(ForUnitTestException.class, e.getCause().getClass());
+    }
+  }
+
+  @Test
+  public void map_error_rejects() throws Exception {
+    final AssertionError thrown = new AssertionError();
+    try {
+      Pipeline.<String>begin()
+        .then(new MapCallback<String, String>() {
+          @Override
+          public String map(String value) throws Exception {
+            throw thrown;
+          }
+        })
+        .run(executor, "")
+        .await();
+      fail();
+    } catch (RejectedException e) {
+      assertSame(thrown, e.getCause().getCause());
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void at_without_stage() throws Exception {
+    Pipeline.<String>begin().at(CallbackDispatcher.Direct.INSTANCE);
+  }
+}
@@ -0,0 +1,81 @@
+package com.github.sho5nn.promise;
+
+import com.github.sho5nn.promise.fortestutils.CallableTask;
+import com.github.sho5nn.promise.fortestutils.ForUnitTestException;
+
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PromiseAwaitTest extends BaseTest {
+
+  @Test
+  public void await_fulfilled() throws Exception {
+    assertEquals(100, (int) Promise.when(executor, Promise.single(CallableTask.increment(99))).await());
+  }
+
+  @Test
+  public void await_rejected() throws Exception {
+    try {
+      Promise.when(executor, Promise.single(CallableTask.throwException())).await();
+      fail();
+    } catch (RejectedException e) {
+      assertEquals(ForUnitTestException.class, e.getCause().getCause().getClass());
+      assertSame(e.getCause(), e.getReason());
+    }
+  }
+
+  @Test
+  public void await_after_settled() throws Exception {
+    Promise<Integer, Throwable> promise = Promise.when(executor, Promise.single(CallableTask.increment(1)));
+    assertEquals(2, (int) promise.await());
+    assertEquals(2, (int) promise.await());
+  }
+
+  @Test
+  public void await_nested_all_on_fork_join_pool() throws Exception {
+    final ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      long sum = Promise.when(pool, Promise.single(new Sum(pool, 0, 4096))).await();
+      assertEquals(4095L * 4096 / 2, sum);
+    } finally {
+      pool.shutdown();
+      assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+    }
+  }
+
+  private static class Sum implements Callable<Long> {
+
+    private final ForkJoinPool pool;
+    private final int from;
+    private final int to;
+
+    Sum(ForkJoinPool pool, int from, int to) {
+      this.pool = pool;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public Long call() throws Exception {
+      assertTrue(Thread.currentThread() instanceof ForkJoinWorkerThread);
+      if (to - from <= 16) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+          sum += i;
+        }
+        return sum;
+      }
+
+      // every level waits on its children; the workers run them instead of blocking
+      int mid = (from + to) >>> 1;
+      Object[] halves = Promise.when(pool, Promise.all(new Sum(pool, from, mid), new Sum(pool, mid, to))).await();
+      return (Long) halves[0] + (Long) halves[1];
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.github.sho5nn.promise;
+
+import com.github.sho5nn.promise.fortestutils.CallableTask;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+
+public class PromiseInlineTest extends BaseTest {
+
+  private static Callable<String> currentThreadName() {
+    return new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        return Thread.currentThread().getName();
+      }
+    };
+  }
+
+  @Test
+  public void inline_stages_run_on_same_worker() throws Exception {
+    final Set<String> threadNames = new HashSet<>();
+    Promise<String, Throwable> promise =
+      Promise.when(executor, Promise.single(currentThreadName()), Promise.Mode.INLINE);
+    for (int i = 0; i < 8; i++) {
+      promise = promise.then(new FulfillCallbackThenSingle<String, String>() {
+        @Override
+        public PromiseTask.Single<String> onFulfilled(String value) {
+          threadNames.add(value);
+          return Promise.single(currentThreadName());
+        }
+      });
+    }
+
+    countSet(1);
+    promise.done(new FulfillCallbackDone<String>() {
+      @Override
+      public void onFulfilled(String value) {
+        threadNames.add(value);
+        countDown();
+      }
+    });
+    awaitToCheckCount();
+    assertEquals(1, threadNames.size());
+  }
+
+  @Test
+  public void inline_deep_chain_does_not_overflow() throws Exception {
+    Promise<Integer, Throwable> promise =
+      Promise.when(executor, Promise.single(CallableTask.increment(0)), Promise.Mode.INLINE);
+    for (int i = 1; i < 20000; i++) {
+      promise = promise.then(new FulfillCallbackThenSingle<Integer, Integer>() {
+        @Override
+        public PromiseTask.Single<Integer> onFulfilled(Integer value) {
+          return Promise.single(CallableTask.increment(value));
+        }
+      });
+    }
+
+    countSet(1);
+    promise.done(new FulfillCallbackDone<Integer>() {
+      @Override
+      public void onFulfilled(Integer value) {
+        assertEquals(20000, (int) value);
+        countDown();
+      }
+    });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void inline_rejection_is_passed_through() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.single(CallableTask.throwException("inline")), Promise.Mode.INLINE)
+      .then(new FulfillCallbackThenSingle<Void, Integer>() {
+        @Override
+        public PromiseTask.Single<Integer> onFulfilled(Void value) {
+          fail();
+          return Promise.single(CallableTask.increment(0));
+        }
+      })
+      .done(new RejectCallbackDone<Throwable>() {
+        @Override
+        public void onRejected(Throwable value) {
+          assertEquals("inline", value.getCause().getMessage());
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void inline_stage_can_await_nested_inline_chain() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.single(CallableTask.increment(0)), Promise.Mode.INLINE)
+      .then(new FulfillCallbackThenSingle<Integer, Integer>() {
+        @Override
+        public PromiseTask.Single<Integer> onFulfilled(final Integer value) {
+          return Promise.single(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+              // started while this stage is running, so it must not be queued behind it
+              return Promise.when(executor, Promise.single(CallableTask.increment(value)), Promise.Mode.INLINE)
+                .then(new FulfillCallbackThenSingle<Integer, Integer>() {
+                  @Override
+                  public PromiseTask.Single<Integer> onFulfilled(Integer value) {
+                    return Promise.single(CallableTask.increment(value));
+                  }
+                })
+                .await();
+            }
+          });
+        }
+      })
+      .done(new FulfillCallbackDone<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertEquals(3, (int) value);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+}
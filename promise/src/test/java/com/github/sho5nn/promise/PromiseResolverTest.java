@@ -0,0 +1,78 @@
+package com.github.sho5nn.promise;
+
+import com.github.sho5nn.promise.fortestutils.CallableTask;
+import com.github.sho5nn.promise.fortestutils.ForUnitTestException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PromiseResolverTest extends BaseTest {
+
+  @Test
+  public void resolve_from_other_thread() throws Exception {
+    final Resolver<String, Throwable> resolver = Promise.resolver(executor);
+
+    countSet(1);
+    resolver.promise()
+      .then(new FulfillCallbackThenSingle<String, Integer>() {
+        @Override
+        public PromiseTask.Single<Integer> onFulfilled(String value) {
+          return Promise.single(CallableTask.increment(value.length()));
+        }
+      })
+      .done(new FulfillCallbackDone<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertEquals(4, (int) value);
+          countDown();
+        }
+      });
+    assertTrue(resolver.promise().isExecuting());
+
+    new Thread(new Runnable() {
+      @Override
+      public void run() {
+        resolver.resolve("foo");
+      }
+    }).start();
+    awaitToCheckCount();
+    assertTrue(resolver.promise().isFulfilled());
+  }
+
+  @Test
+  public void reject() throws Exception {
+    Resolver<String, Throwable> resolver = Promise.resolver(executor);
+
+    countSet(1);
+    resolver.promise().done(new RejectCallbackDone<Throwable>() {
+      @Override
+      public void onRejected(Throwable reason) {
+        assertEquals(ForUnitTestException.class, reason.getClass());
+        countDown();
+      }
+    });
+    assertTrue(resolver.reject(new ForUnitTestException()));
+    awaitToCheckCount();
+    assertTrue(resolver.promise().isRejected());
+  }
+
+  @Test
+  public void only_first_settle_wins() throws Exception {
+    Resolver<String, Throwable> resolver = Promise.resolver(executor);
+
+    assertTrue(resolver.resolve("first"));
+    assertFalse(resolver.resolve("second"));
+    assertFalse(resolver.reject(new ForUnitTestException()));
+
+    countSet(1);
+    resolver.promise().done(new FulfillCallbackDone<String>() {
+      @Override
+      public void onFulfilled(String value) {
+        assertEquals("first", value);
+        countDown();
+      }
+    });
+    awaitToCheckCount();
+  }
+}
@@ -7,7 +7,10 @@ import com.github.sho5nn.promise.fortestutils.ForUnitTestException;
 
 import org.junit.Test;
 
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.*;
 
@@ -376,4 +379,254 @@ public class PromiseSingleThenTest extends BaseTest {
       });
     awaitToCheckCount();
   }
+
+  @Test
+  public void fulfilled_then_apply_fulfilled() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.single(CallableTask.increment(9)))
+      .then(new FulfillCallbackThenApply<Integer, String>() {
+        @Override
+        public String onFulfilled(Integer value) {
+          return "value:" + value;
+        }
+      })
+      .then(new FulfillCallbackThenApply<String, Integer>() {
+        @Override
+        public Integer onFulfilled(String value) {
+          return value.length();
+        }
+      })
+      .done(new FulfillCallbackDone<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertEquals(8, (int) value);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void fulfilled_then_apply_runs_on_same_thread() throws Exception {
+    countSet(1);
+    final String[] workerName = new String[1];
+    Promise.when(executor, Promise.single(new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        workerName[0] = Thread.currentThread().getName();
+        return workerName[0];
+      }
+    }))
+      .then(new FulfillCallbackThenApply<String, Boolean>() {
+        @Override
+        public Boolean onFulfilled(String value) {
+          return value.equals(Thread.currentThread().getName());
+        }
+      })
+      .done(new FulfillCallbackDone<Boolean>() {
+        @Override
+        public void onFulfilled(Boolean value) {
+          assertTrue(value);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void fulfilled_then_accept_passes_value() throws Exception {
+    countSet(2);
+    Promise.when(executor, Promise.single(CallableTask.increment(9)))
+      .then(new FulfillCallbackThenAccept<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertEquals(10, (int) value);
+          countDown();
+        }
+      })
+      .done(new FulfillCallbackDone<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertEquals(10, (int) value);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void rejected_then_apply_passes_reason() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.single(CallableTask.throwException()))
+      .then(new FulfillCallbackThenApply<Void, Integer>() {
+        @Override
+        public Integer onFulfilled(Void value) {
+          fail();
+          return 0;
+        }
+      })
+      .done(new RejectCallbackDone<Throwable>() {
+        @Override
+        public void onRejected(Throwable reason) {
+          assertEquals(ExecutionException.class, reason.getClass());
+          assertEquals(ForUnitTestException.class, reason.getCause().getClass());
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void fulfilled_then_apply_throws_rejected() throws Exception {
+    final ForUnitTestException thrown = new ForUnitTestException();
+    countSet(1);
+    Promise.when(executor, Promise.single(CallableTask.increment(9)))
+      .then(new FulfillCallbackThenApply<Integer, String>() {
+        @Override
+        public String onFulfilled(Integer value) {
+          throw thrown;
+        }
+      })
+      .done(new RejectCallbackDone<Throwable>() {
+        @Override
+        public void onRejected(Throwable reason) {
+          assertSame(thrown, reason);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void fulfilled_then_accept_throws_rejected() throws Exception {
+    final ForUnitTestException thrown = new ForUnitTestException();
+    Promise<Integer, Throwable> promise = Promise.when(executor, Promise.single(CallableTask.increment(9)))
+      .then(new FulfillCallbackThenAccept<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          throw thrown;
+        }
+      });
+    try {
+      promise.await();
+      fail();
+    } catch (RejectedException e) {
+      assertSame(thrown, e.getReason());
+    }
+  }
+
+  @Test
+  public void all_then_apply_throws_rejected() throws Exception {
+    final ForUnitTestException thrown = new ForUnitTestException();
+    countSet(1);
+    Promise.when(executor, Promise.all(CallableTask.increment(9)))
+      .then(new FulfillCallbackThenApply<Object[], Integer>() {
+        @Override
+        public Integer onFulfilled(Object[] value) {
+          throw thrown;
+        }
+      })
+      .done(new RejectCallbackDone<Throwable>() {
+        @Override
+        public void onRejected(Throwable reason) {
+          assertSame(thrown, reason);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void all_then_accept_throws_rejected() throws Exception {
+    final ForUnitTestException thrown = new ForUnitTestException();
+    countSet(1);
+    Promise.when(executor, Promise.all(CallableTask.increment(9)))
+      .then(new FulfillCallbackThenAccept<Object[]>() {
+        @Override
+        public void onFulfilled(Object[] value) {
+          throw thrown;
+        }
+      })
+      .done(new RejectCallbackDone<Throwable>() {
+        @Override
+        public void onRejected(Throwable reason) {
+          assertSame(thrown, reason);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void all_rejected_then_apply_wraps_reasons() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.all(CallableTask.throwException()))
+      .then(new FulfillCallbackThenApply<Object[], Integer>() {
+        @Override
+        public Integer onFulfilled(Object[] value) {
+          fail();
+          return 0;
+        }
+      })
+      .done(new RejectCallbackDone<Throwable>() {
+        @Override
+        public void onRejected(Throwable reason) {
+          assertEquals(RejectedException.class, reason.getClass());
+          Throwable[] reasons = (Throwable[]) ((RejectedException) reason).getReason();
+          assertEquals(ForUnitTestException.class, reasons[0].getCause().getClass());
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void fulfilled_then_promise_fulfilled_without_blocking() throws Exception {
+    final ExecutorService singleThread = Executors.newSingleThreadExecutor();
+    countSet(1);
+    Promise.when(singleThread, Promise.single(CallableTask.increment(9)))
+      .then(new FulfillCallbackThenPromise<Integer, Integer>() {
+        @Override
+        public Promise<Integer, Throwable> onFulfilled(Integer value) {
+          // the only worker of singleThread is running this stage
+          return Promise.when(singleThread, Promise.single(CallableTask.increment(value)))
+            .then(new FulfillCallbackThenSingle<Integer, Integer>() {
+              @Override
+              public PromiseTask.Single<Integer> onFulfilled(Integer value) {
+                return Promise.single(CallableTask.increment(value));
+              }
+            });
+        }
+      })
+      .done(new FulfillCallbackDone<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertEquals(12, (int) value);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+    singleThread.shutdown();
+  }
+
+  @Test
+  public void fulfilled_then_promise_rejected() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.single(CallableTask.increment(9)))
+      .then(new FulfillCallbackThenPromise<Integer, Void>() {
+        @Override
+        public Promise<Void, Throwable> onFulfilled(Integer value) {
+          return Promise.when(executor, Promise.single(CallableTask.throwException("inner")));
+        }
+      })
+      .done(new RejectCallbackDone<Throwable>() {
+        @Override
+        public void onRejected(Throwable reason) {
+          assertEquals(ExecutionException.class, reason.getClass());
+          assertEquals("inner", reason.getCause().getMessage());
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
 }
@@ -6,7 +6,18 @@ import com.github.sho5nn.promise.fortestutils.RunnableTask;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -348,4 +359,713 @@ public class PromiseTaskTest extends BaseTest {
       });
     awaitToCheckCount();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void all_fulfilled_wide_fan_out() throws Exception {
+    Object[] tasks = new Object[5000];
+    for (int i = 0; i < tasks.length; i++) {
+      tasks[i] = CallableTask.increment(i);
+    }
+
+    countSet(1);
+    Promise.when(executor, Promise.all(tasks))
+      .done(new FulfillCallbackDone<Object[]>() {
+        @Override
+        public void onFulfilled(Object[] value) {
+          assertEquals(5000, value.length);
+          for (int i = 0; i < value.length; i++) {
+            assertEquals(i + 1, (int) value[i]);
+          }
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void all_rejected_wide_fan_out() throws Exception {
+    Object[] tasks = new Object[5000];
+    for (int i = 0; i < tasks.length; i++) {
+      tasks[i] = i == 4321 ? CallableTask.throwException() : CallableTask.increment(i);
+    }
+
+    countSet(1);
+    Promise.when(executor, Promise.all(tasks))
+      .done(new RejectCallbackDone<Throwable[]>() {
+        @Override
+        public void onRejected(Throwable[] reason) {
+          assertEquals(5000, reason.length);
+          for (int i = 0; i < reason.length; i++) {
+            if (i == 4321) {
+              assertEquals(ForUnitTestException.class, reason[i].getCause().getClass());
+            } else {
+              assertNull(reason[i]);
+            }
+          }
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void race_drops_queued_losers() throws Exception {
+    ThreadPoolExecutor singleThread =
+      new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+    final AtomicInteger started = new AtomicInteger();
+
+    countSet(1);
+    Promise.when(singleThread, Promise.race(
+      CallableTask.countUp(started),
+      CallableTask.countUp(started),
+      CallableTask.countUp(started)
+    ))
+      .done(new FulfillCallbackDone<Object>() {
+        @Override
+        public void onFulfilled(Object value) {
+          assertEquals(1, (int) value);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+
+    singleThread.shutdown();
+    assertTrue(singleThread.awaitTermination(1, TimeUnit.SECONDS));
+    assertEquals(1, started.get());
+    assertTrue(singleThread.getQueue().isEmpty());
+  }
+
+  @Test
+  public void race_interrupts_running_losers() throws Exception {
+    final CountDownLatch interrupted = new CountDownLatch(2);
+    Callable<Void> slow = new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        try {
+          Thread.sleep(10000);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+          throw e;
+        }
+        return null;
+      }
+    };
+
+    countSet(1);
+    Promise.when(executor, Promise.race(slow, CallableTask.sleep(100, "fast"), slow).interruptLosers())
+      .done(new FulfillCallbackDone<Object>() {
+        @Override
+        public void onFulfilled(Object value) {
+          assertEquals("fast", value);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+    assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void all_fail_fast_rejects_on_first_failure() throws Exception {
+    final CountDownLatch interrupted = new CountDownLatch(2);
+    Callable<Void> slow = new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        try {
+          Thread.sleep(10000);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+          throw e;
+        }
+        return null;
+      }
+    };
+
+    countSet(1);
+    Promise.when(executor, Promise.all(slow, CallableTask.sleepThrowException(50), slow).failFast(true))
+      .done(new RejectCallbackDone<Throwable[]>() {
+        @Override
+        public void onRejected(Throwable[] reason) {
+          assertEquals(3, reason.length);
+          assertNull(reason[0]);
+          assertEquals(ForUnitTestException.class, reason[1].getCause().getClass());
+          assertNull(reason[2]);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+    assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void all_progress_reports_each_index_before_settling() throws Exception {
+    final AtomicInteger fulfilled = new AtomicInteger();
+    final AtomicInteger rejected = new AtomicInteger();
+
+    countSet(1);
+    Promise.when(executor, Promise.all(
+      CallableTask.increment(0),
+      CallableTask.throwException(),
+      CallableTask.sleep(50, "slow")
+    ))
+      .progress(new ProgressCallbackAll() {
+        @Override
+        public void onFulfilled(int index, Object value) {
+          if (index == 0) assertEquals(1, (int) value);
+          if (index == 2) assertEquals("slow", value);
+          fulfilled.incrementAndGet();
+        }
+
+        @Override
+        public void onRejected(int index, Throwable reason) {
+          assertEquals(1, index);
+          assertEquals(ForUnitTestException.class, reason.getCause().getClass());
+          rejected.incrementAndGet();
+        }
+      })
+      .done(new RejectCallbackDone<Throwable[]>() {
+        @Override
+        public void onRejected(Throwable[] reason) {
+          assertEquals(2, fulfilled.get());
+          assertEquals(1, rejected.get());
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void all_bounded_never_exceeds_parallelism() throws Exception {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    final AtomicInteger pulled = new AtomicInteger();
+    Iterator<Callable<Integer>> tasks = new Iterator<Callable<Integer>>() {
+      @Override
+      public boolean hasNext() {
+        return pulled.get() < 200;
+      }
+
+      @Override
+      public Callable<Integer> next() {
+        final int i = pulled.getAndIncrement();
+        // never more than parallelism tasks have been taken ahead of the ones that settled
+        assertTrue(inFlight.get() < 4);
+        return new Callable<Integer>() {
+          @Override
+          public Integer call() throws Exception {
+            int now = inFlight.incrementAndGet();
+            int max;
+            while (now > (max = maxInFlight.get()) && !maxInFlight.compareAndSet(max, now)) ;
+            Thread.sleep(1);
+            inFlight.decrementAndGet();
+            return i;
+          }
+        };
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+
+    countSet(1);
+    Promise.when(executor, Promise.all(4, tasks))
+      .done(new FulfillCallbackDone<Object[]>() {
+        @Override
+        public void onFulfilled(Object[] value) {
+          assertEquals(200, value.length);
+          for (int i = 0; i < value.length; i++) {
+            assertEquals(i, (int) value[i]);
+          }
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+    assertTrue(maxInFlight.get() <= 4);
+  }
+
+  @Test
+  public void all_bounded_rejected() throws Exception {
+    List<Object> tasks = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      tasks.add(i == 42 ? CallableTask.throwException() : CallableTask.increment(i));
+    }
+
+    countSet(1);
+    Promise.when(executor, Promise.all(3, tasks))
+      .done(new RejectCallbackDone<Throwable[]>() {
+        @Override
+        public void onRejected(Throwable[] reason) {
+          assertEquals(100, reason.length);
+          for (int i = 0; i < reason.length; i++) {
+            if (i == 42) {
+              assertEquals(ForUnitTestException.class, reason[i].getCause().getClass());
+            } else {
+              assertNull(reason[i]);
+            }
+          }
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void all_bounded_empty_source() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.all(2, new ArrayList<Object>()))
+      .done(new FulfillCallbackDone<Object[]>() {
+        @Override
+        public void onFulfilled(Object[] value) {
+          assertEquals(0, value.length);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void all_bounded_unbounded_parallelism() throws Exception {
+    Object[] value = Promise.when(executor,
+      Promise.all(Integer.MAX_VALUE, Arrays.asList(CallableTask.increment(0), CallableTask.increment(1)))
+    ).await();
+    assertEquals(2, value.length);
+    assertEquals(1, (int) value[0]);
+    assertEquals(2, (int) value[1]);
+  }
+
+  @Test
+  public void all_bounded_iterable_task_can_run_again() throws Exception {
+    PromiseTask.All task = Promise.all(2, Arrays.asList(CallableTask.increment(0), CallableTask.increment(1)));
+
+    for (int run = 0; run < 2; run++) {
+      Object[] value = Promise.when(executor, task).await();
+      assertEquals(2, value.length);
+      assertEquals(1, (int) value[0]);
+      assertEquals(2, (int) value[1]);
+    }
+  }
+
+  @Test
+  public void all_retry_runs_only_rejected_tasks_again() throws Exception {
+    final AtomicInteger flakyRuns = new AtomicInteger();
+    final AtomicInteger stableRuns = new AtomicInteger();
+    Callable<String> flaky = new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        if (flakyRuns.incrementAndGet() < 3) throw new ForUnitTestException();
+        return "flaky";
+      }
+    };
+
+    countSet(1);
+    Promise.when(executor, Promise.all(CallableTask.countUp(stableRuns), flaky, CallableTask.countUp(stableRuns)).retry(2))
+      .done(new FulfillCallbackDone<Object[]>() {
+        @Override
+        public void onFulfilled(Object[] value) {
+          assertEquals("flaky", value[1]);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+    assertEquals(3, flakyRuns.get());
+    assertEquals(2, stableRuns.get());
+  }
+
+  @Test
+  public void all_retry_rejects_when_attempts_run_out() throws Exception {
+    final AtomicInteger runs = new AtomicInteger();
+    Callable<Void> failing = new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        runs.incrementAndGet();
+        throw new ForUnitTestException();
+      }
+    };
+
+    countSet(1);
+    Promise.when(executor, Promise.all(2, Arrays.asList(CallableTask.increment(0), failing)).retry(3))
+      .done(new RejectCallbackDone<Throwable[]>() {
+        @Override
+        public void onRejected(Throwable[] reason) {
+          assertNull(reason[0]);
+          assertEquals(ForUnitTestException.class, reason[1].getCause().getClass());
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+    assertEquals(4, runs.get());
+  }
+
+  @Test
+  public void quorum_fulfilled_cancels_remaining() throws Exception {
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    Callable<Void> slow = new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        try {
+          Thread.sleep(10000);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+          throw e;
+        }
+        return null;
+      }
+    };
+
+    countSet(1);
+    Promise.when(executor, Promise.quorum(2,
+      CallableTask.increment(0),
+      CallableTask.throwException(),
+      slow,
+      CallableTask.sleep(50, "late")
+    ).interruptRemaining())
+      .done(new FulfillCallbackDone<Object[]>() {
+        @Override
+        public void onFulfilled(Object[] value) {
+          assertEquals(4, value.length);
+          assertEquals(1, value[0]);
+          assertNull(value[2]);
+          assertEquals("late", value[3]);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+    assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void quorum_rejected_once_out_of_reach() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.quorum(2,
+      CallableTask.throwException(),
+      CallableTask.sleep(10000, "never"),
+      CallableTask.sleepThrowException(50)
+    ))
+      .done(new RejectCallbackDone<Throwable[]>() {
+        @Override
+        public void onRejected(Throwable[] reason) {
+          assertEquals(3, reason.length);
+          assertEquals(ForUnitTestException.class, reason[0].getCause().getClass());
+          assertNull(reason[1]);
+          assertEquals(ForUnitTestException.class, reason[2].getCause().getClass());
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void quorum_one_is_any() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.quorum(1, CallableTask.throwException(), CallableTask.sleep(50, "ok")))
+      .done(new FulfillCallbackDone<Object[]>() {
+        @Override
+        public void onFulfilled(Object[] value) {
+          assertNull(value[0]);
+          assertEquals("ok", value[1]);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void hedged_backup_wins_over_slow_primary() throws Exception {
+    final AtomicInteger runs = new AtomicInteger();
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    Callable<String> task = new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        if (runs.incrementAndGet() > 1) return "backup";
+        try {
+          Thread.sleep(10000);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+          throw e;
+        }
+        return "primary";
+      }
+    };
+
+    countSet(1);
+    Promise.when(executor, Promise.hedged(task, new HedgePolicy(0.95, 20, TimeUnit.MILLISECONDS)))
+      .done(new FulfillCallbackDone<String>() {
+        @Override
+        public void onFulfilled(String value) {
+          assertEquals("backup", value);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+    assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+    assertEquals(2, runs.get());
+  }
+
+  @Test
+  public void hedged_fast_primary_starts_no_backup() throws Exception {
+    final AtomicInteger runs = new AtomicInteger();
+
+    countSet(1);
+    Promise.when(executor, Promise.hedged(CallableTask.countUp(runs), new HedgePolicy(0.95, 200, TimeUnit.MILLISECONDS)))
+      .done(new FulfillCallbackDone<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertEquals(1, (int) value);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+    Thread.sleep(300);
+    assertEquals(1, runs.get());
+  }
+
+  @Test
+  public void hedged_fast_primary_removes_its_timer() throws Exception {
+    Promise.when(executor, Promise.hedged(CallableTask.increment(1), new HedgePolicy(0.95, 10, TimeUnit.SECONDS)))
+      .await();
+    assertEquals(0, ((ScheduledThreadPoolExecutor) HedgePolicy.scheduler()).getQueue().size());
+  }
+
+  @Test
+  public void hedge_policy_delay_follows_observed_latency() throws Exception {
+    HedgePolicy policy = new HedgePolicy(0.9, 1, TimeUnit.SECONDS);
+    assertEquals(TimeUnit.SECONDS.toNanos(1), policy.delayNanos());
+    for (int i = 1; i <= 100; i++) {
+      policy.record(i);
+    }
+    assertEquals(91, policy.delayNanos());
+  }
+
+  @Test
+  public void map_preserves_order() throws Exception {
+    List<Integer> input = new ArrayList<>();
+    for (int i = 0; i < 100000; i++) {
+      input.add(i);
+    }
+
+    countSet(1);
+    Promise.when(executor, Promise.map(input, new MapCallback<Integer, String>() {
+      @Override
+      public String map(Integer value) throws Exception {
+        return String.valueOf(value * 2);
+      }
+    }).parallelism(4))
+      .done(new FulfillCallbackDone<List<String>>() {
+        @Override
+        public void onFulfilled(List<String> value) {
+          assertEquals(100000, value.size());
+          for (int i = 0; i < value.size(); i++) {
+            assertEquals(String.valueOf(i * 2), value.get(i));
+          }
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void map_small_input() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.map(Arrays.asList(1, 2, 3), new MapCallback<Integer, Integer>() {
+      @Override
+      public Integer map(Integer value) throws Exception {
+        return value + 1;
+      }
+    }))
+      .done(new FulfillCallbackDone<List<Integer>>() {
+        @Override
+        public void onFulfilled(List<Integer> value) {
+          assertEquals(Arrays.asList(2, 3, 4), value);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void map_rejected_by_callback() throws Exception {
+    List<Integer> input = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      input.add(i);
+    }
+
+    countSet(1);
+    Promise.when(executor, Promise.map(input, new MapCallback<Integer, Integer>() {
+      @Override
+      public Integer map(Integer value) throws Exception {
+        if (value == 7777) throw new ForUnitTestException();
+        return value;
+      }
+    }).parallelism(4))
+      .done(new RejectCallbackDone<Throwable>() {
+        @Override
+        public void onRejected(Throwable reason) {
+          assertEquals(ForUnitTestException.class, reason.getCause().getClass());
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void all_without_tasks() throws Exception {
+    Promise.all();
+  }
+
+  @Test
+  public void all_int_fulfilled() throws Exception {
+    IntCallable[] tasks = new IntCallable[1000];
+    for (int i = 0; i < tasks.length; i++) {
+      final int value = i;
+      tasks[i] = new IntCallable() {
+        @Override
+        public int call() throws Exception {
+          return value * 2;
+        }
+      };
+    }
+
+    countSet(1);
+    Promise.when(executor, Promise.allInt(tasks))
+      .done(new FulfillCallbackDone<int[]>() {
+        @Override
+        public void onFulfilled(int[] value) {
+          assertEquals(1000, value.length);
+          for (int i = 0; i < value.length; i++) {
+            assertEquals(i * 2, value[i]);
+          }
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void all_long_rejected() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.allLong(new LongCallable() {
+      @Override
+      public long call() throws Exception {
+        return Long.MAX_VALUE;
+      }
+    }, new LongCallable() {
+      @Override
+      public long call() throws Exception {
+        throw new ForUnitTestException();
+      }
+    }))
+      .done(new RejectCallbackDone<Throwable[]>() {
+        @Override
+        public void onRejected(Throwable[] reason) {
+          assertNull(reason[0]);
+          assertEquals(ForUnitTestException.class, reason[1].getCause().getClass());
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void all_double_then_sum() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.allDouble(new DoubleCallable() {
+      @Override
+      public double call() throws Exception {
+        return 0.5;
+      }
+    }, new DoubleCallable() {
+      @Override
+      public double call() throws Exception {
+        return 1.25;
+      }
+    }))
+      .then(new FulfillCallbackThenApply<double[], Double>() {
+        @Override
+        public Double onFulfilled(double[] value) {
+          return value[0] + value[1];
+        }
+      })
+      .done(new FulfillCallbackDone<Double>() {
+        @Override
+        public void onFulfilled(Double value) {
+          assertEquals(1.75, value, 0);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void zip_fulfilled_typed() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.zip(
+      Promise.single(CallableTask.increment(1)),
+      Promise.single(CallableTask.sleep(50, "two")),
+      Promise.single(RunnableTask.sleep(10))
+    ))
+      .done(new FulfillCallbackDone<Tuple.Of3<Integer, String, Void>>() {
+        @Override
+        public void onFulfilled(Tuple.Of3<Integer, String, Void> value) {
+          int first = value.first();
+          String second = value.second();
+          assertEquals(2, first);
+          assertEquals("two", second);
+          assertNull(value.third());
+          assertEquals(3, value.size());
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void zip_eight() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.zip(
+      Promise.single(CallableTask.increment(0)),
+      Promise.single(CallableTask.increment(1)),
+      Promise.single(CallableTask.increment(2)),
+      Promise.single(CallableTask.increment(3)),
+      Promise.single(CallableTask.increment(4)),
+      Promise.single(CallableTask.increment(5)),
+      Promise.single(CallableTask.increment(6)),
+      Promise.single(CallableTask.sleep(10, "eight"))
+    ))
+      .done(new FulfillCallbackDone<Tuple.Of8<Integer, Integer, Integer, Integer, Integer, Integer, Integer, String>>() {
+        @Override
+        public void onFulfilled(Tuple.Of8<Integer, Integer, Integer, Integer, Integer, Integer, Integer, String> value) {
+          assertEquals("(1, 2, 3, 4, 5, 6, 7, eight)", value.toString());
+          assertEquals(7, (int) value.seventh());
+          assertEquals("eight", value.eighth());
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void zip_rejected_with_first_rejection() throws Exception {
+    countSet(1);
+    Promise.when(executor, Promise.zip(
+      Promise.single(CallableTask.sleep(10000, "never")),
+      Promise.single(CallableTask.throwException())
+    ))
+      .done(new RejectCallbackDone<Throwable>() {
+        @Override
+        public void onRejected(Throwable reason) {
+          assertEquals(ForUnitTestException.class, reason.getCause().getClass());
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void zip_rejects_hedged_task() throws Exception {
+    Promise.zip(
+      Promise.single(CallableTask.increment(1)),
+      Promise.hedged(CallableTask.increment(2), new HedgePolicy(0.95, 20, TimeUnit.MILLISECONDS))
+    );
+  }
+}
@@ -5,7 +5,11 @@ import com.github.sho5nn.promise.fortestutils.ForUnitTestException;
 
 import org.junit.Test;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -139,4 +143,317 @@ public class PromiseTest extends BaseTest {
     });
     awaitToCheckCount();
   }
+
+  @Test
+  public void concurrent_settle_has_single_winner() throws Exception {
+    final Promise<Integer, Throwable> promise =
+      new DeferredTrigger<Integer, Throwable>(executor, Promise.single(CallableTask.increment(0))).promise();
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicInteger illegalState = new AtomicInteger();
+
+    countSet(8);
+    for (int i = 0; i < 8; i++) {
+      final int index = i;
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            if (index % 2 == 0) {
+              promise.resolve(index);
+            } else {
+              promise.reject(new ForUnitTestException(String.valueOf(index)));
+            }
+          } catch (IllegalStateException e) {
+            illegalState.incrementAndGet();
+          } catch (InterruptedException e) {
+            fail();
+          }
+          countDown();
+        }
+      });
+    }
+    start.countDown();
+    awaitToCheckCount();
+
+    assertEquals(false, promise.isPending());
+    assertEquals(false, promise.isExecuting());
+    assertEquals(4, illegalState.get());
+    if (promise.isFulfilled()) {
+      assertNotNull(promise.resolvedValue());
+      assertNull(promise.rejectedValue());
+    } else {
+      assertTrue(promise.isRejected());
+      assertNotNull(promise.rejectedValue());
+      assertNull(promise.resolvedValue());
+    }
+  }
+
+  @Test
+  public void multiple_done_share_single_execution() throws Exception {
+    AtomicInteger executed = new AtomicInteger();
+    Promise<Integer, Throwable> promise = Promise.when(executor,
+      Promise.single(CallableTask.countUp(executed))
+    );
+
+    countSet(3);
+    for (int i = 0; i < 3; i++) {
+      promise.done(new FulfillCallbackDone<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertEquals(1, (int) value);
+          countDown();
+        }
+      });
+    }
+    awaitToCheckCount();
+    assertEquals(1, executed.get());
+  }
+
+  @Test
+  public void throwing_done_does_not_skip_later_listeners() throws Exception {
+    Resolver<Integer, Throwable> resolver = Promise.resolver(executor);
+    final ForUnitTestException thrown = new ForUnitTestException();
+
+    countSet(1);
+    resolver.promise().done(new FulfillCallbackDone<Integer>() {
+      @Override
+      public void onFulfilled(Integer value) {
+        throw thrown;
+      }
+    });
+    resolver.promise().done(new FulfillCallbackDone<Integer>() {
+      @Override
+      public void onFulfilled(Integer value) {
+        assertEquals(1, (int) value);
+        countDown();
+      }
+    });
+
+    try {
+      resolver.resolve(1);
+      fail();
+    } catch (ForUnitTestException e) {
+      assertSame(thrown, e);
+    }
+    awaitToCheckCount();
+    assertTrue(resolver.promise().isFulfilled());
+  }
+
+  @Test
+  public void multiple_then_share_single_execution() throws Exception {
+    AtomicInteger executed = new AtomicInteger();
+    Promise<Integer, Throwable> promise = Promise.when(executor,
+      Promise.single(CallableTask.countUp(executed))
+    );
+
+    countSet(2);
+    promise
+      .then(new FulfillCallbackThenSingle<Integer, Integer>() {
+        @Override
+        public PromiseTask.Single<Integer> onFulfilled(Integer value) {
+          return Promise.single(CallableTask.increment(value));
+        }
+      })
+      .done(new FulfillCallbackDone<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertEquals(2, (int) value);
+          countDown();
+        }
+      });
+    promise
+      .then(new FulfillCallbackThenSingle<Integer, Integer>() {
+        @Override
+        public PromiseTask.Single<Integer> onFulfilled(Integer value) {
+          return Promise.single(CallableTask.increment(value + 10));
+        }
+      })
+      .done(new FulfillCallbackDone<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertEquals(12, (int) value);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+    assertEquals(1, executed.get());
+  }
+
+  @Test
+  public void done_after_settled_is_called_with_stored_value() throws Exception {
+    AtomicInteger executed = new AtomicInteger();
+    Promise<Integer, Throwable> promise = Promise.when(executor,
+      Promise.single(CallableTask.countUp(executed))
+    );
+
+    countSet(1);
+    promise.done(new FulfillCallbackDone<Integer>() {
+      @Override
+      public void onFulfilled(Integer value) {
+        countDown();
+      }
+    });
+    awaitToCheckCount();
+
+    final Integer[] result = new Integer[1];
+    promise.done(new FulfillCallbackDone<Integer>() {
+      @Override
+      public void onFulfilled(Integer value) {
+        result[0] = value;
+      }
+    });
+    assertEquals(1, (int) result[0]); // called synchronously
+    assertEquals(1, executed.get());
+  }
+
+  @Test
+  public void resolved_dispatches_on_calling_thread() throws Exception {
+    final Thread caller = Thread.currentThread();
+    final AtomicInteger called = new AtomicInteger();
+    Promise<String, Throwable> promise = Promise.resolved("cached");
+
+    assertTrue(promise.isFulfilled());
+    assertEquals("cached", promise.resolvedValue());
+    promise.done(new FulfillCallbackDone<String>() {
+      @Override
+      public void onFulfilled(String value) {
+        assertSame(caller, Thread.currentThread());
+        assertEquals("cached", value);
+        called.incrementAndGet();
+      }
+    });
+    assertEquals(1, called.get());
+  }
+
+  @Test
+  public void resolved_and_rejected_null_are_shared() throws Exception {
+    assertSame(Promise.resolved(null), Promise.resolved(null));
+    assertSame(Promise.rejected(null), Promise.rejected(null));
+    assertTrue(Promise.rejected(null).isRejected());
+    assertNotSame(Promise.resolved(executor, null), Promise.resolved(executor, null));
+  }
+
+  @Test
+  public void rejected_then_runs_on_executor() throws Exception {
+    final Thread caller = Thread.currentThread();
+
+    countSet(1);
+    Promise.<Integer, Throwable>rejected(executor, new ForUnitTestException())
+      .then(new RejectCallbackThenSingle<Throwable, Integer>() {
+        @Override
+        public PromiseTask.Single<Integer> onRejected(Throwable value) {
+          assertEquals(ForUnitTestException.class, value.getClass());
+          return Promise.single(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+              return caller == Thread.currentThread() ? 0 : 1;
+            }
+          });
+        }
+      })
+      .done(new FulfillCallbackDone<Integer>() {
+        @Override
+        public void onFulfilled(Integer value) {
+          assertEquals(1, (int) value);
+          countDown();
+        }
+      });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void eager_starts_before_done() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    Promise<String, Throwable> promise = Promise.when(executor, Promise.single(new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        started.countDown();
+        return "eager";
+      }
+    }), Promise.Mode.EAGER);
+
+    assertTrue(started.await(1, TimeUnit.SECONDS));
+
+    countSet(1);
+    promise.done(new FulfillCallbackDone<String>() {
+      @Override
+      public void onFulfilled(String value) {
+        assertEquals("eager", value);
+        countDown();
+      }
+    });
+    awaitToCheckCount();
+  }
+
+  @Test
+  public void lazy_waits_for_done() throws Exception {
+    final AtomicInteger started = new AtomicInteger();
+    Promise<Integer, Throwable> promise = Promise.when(executor, Promise.single(CallableTask.countUp(started)));
+
+    Thread.sleep(100);
+    assertEquals(0, started.get());
+    assertTrue(promise.isPending());
+  }
+
+  @Test
+  public void lazy_starts_on_await_of_then_stage() throws Exception {
+    final AtomicInteger started = new AtomicInteger();
+    Promise<Integer, Throwable> stage = Promise.lazy(executor, CallableTask.countUp(started))
+      .then(new FulfillCallbackThenApply<Integer, Integer>() {
+        @Override
+        public Integer onFulfilled(Integer value) {
+          return value * 10;
+        }
+      });
+
+    Thread.sleep(100);
+    assertEquals(0, started.get());
+    assertEquals(10, (int) stage.await());
+    assertEquals(1, started.get());
+  }
+
+  @Test
+  public void lazy_runs_once_for_concurrent_subscribers() throws Exception {
+    final AtomicInteger runs = new AtomicInteger();
+    final Promise<Integer, Throwable> promise = Promise.lazy(executor, new Callable<Integer>() {
+      @Override
+      public Integer call() throws Exception {
+        Thread.sleep(50);
+        return runs.incrementAndGet();
+      }
+    });
+
+    Thread.sleep(100);
+    assertEquals(0, runs.get());
+
+    final int subscribers = 32;
+    final CountDownLatch start = new CountDownLatch(1);
+    countSet(subscribers);
+    for (int i = 0; i < subscribers; i++) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          promise.done(new FulfillCallbackDone<Integer>() {
+            @Override
+            public void onFulfilled(Integer value) {
+              assertEquals(1, (int) value);
+              countDown();
+            }
+          });
+        }
+      });
+    }
+    start.countDown();
+    awaitToCheckCount();
+
+    // added after it settled, gets the memoized value
+    assertEquals(1, (int) promise.await());
+    assertEquals(1, runs.get());
+  }
 }
@@ -2,6 +2,7 @@ package com.github.sho5nn.promise.fortestutils;
 
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CallableTask {
 
@@ -17,6 +18,15 @@ public class CallableTask {
     };
   }
 
+  public static Callable<Integer> countUp(final AtomicInteger counter) {
+    return new Callable<Integer>() {
+      @Override
+      public Integer call() throws Exception {
+        return counter.incrementAndGet();
+      }
+    };
+  }
+
   public static Callable<String> randomString() {
     return new Callable<String>() {
       @Override